@@ -37,6 +37,7 @@ dependencies {
 
     implementation("com.squareup.moshi:moshi:1.15.1")
     implementation("com.squareup.moshi:moshi-adapters:1.15.1")
+    annotationProcessor(project(":processor"))
 
     // TOML
     implementation("de.exlll:configlib-paper:4.5.0")
@@ -46,6 +47,12 @@ dependencies {
 
     // Commands
     api("co.aikar:acf-paper:0.5.1-SNAPSHOT")
+
+    // Tests
+    testImplementation("io.papermc.paper:paper-api:1.20.4-R0.1-SNAPSHOT")
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 java {
@@ -70,6 +77,13 @@ tasks {
         options.release.set(17)
     }
 
+    test {
+        useJUnitPlatform()
+        testLogging {
+            showStandardStreams = true
+        }
+    }
+
     javadoc {
         options {
             (this as StandardJavadocDocletOptions).apply {
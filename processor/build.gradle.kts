@@ -0,0 +1,41 @@
+plugins {
+    id("java-library")
+    id("maven-publish")
+}
+
+group = "me.levitate"
+version = rootProject.version
+
+repositories {
+    mavenCentral()
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+    withSourcesJar()
+}
+
+tasks {
+    compileJava {
+        options.encoding = "UTF-8"
+        options.release.set(17)
+    }
+}
+
+publishing {
+    publications {
+        create<MavenPublication>("maven") {
+            groupId = project.group.toString()
+            artifactId = "quill-processor"
+            version = project.version.toString()
+
+            from(components["java"])
+        }
+    }
+
+    repositories {
+        mavenLocal()
+    }
+}
@@ -0,0 +1,154 @@
+package me.levitate.quill.processor;
+
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Element helpers shared by the processors: annotation lookup, and resolving the accessors of fields,
+ * including those Lombok generates in the same compilation.
+ */
+final class Accessors {
+    private Accessors() {
+    }
+
+    /**
+     * Resolves how generated code reads and writes a field, through the field itself or its accessors.
+     *
+     * @param generated What is being generated, for error messages, such as {@code "a JSON adapter"}
+     */
+    static AdapterProperty classProperty(TypeElement owner, VariableElement field, String name, String jsonName, String generated) {
+        Set<Modifier> modifiers = field.getModifiers();
+        boolean accessible = !modifiers.contains(Modifier.PRIVATE);
+        boolean primitiveBoolean = field.asType().getKind() == TypeKind.BOOLEAN;
+
+        String getter;
+        if (accessible) {
+            getter = "value." + name;
+        } else {
+            String getterName = findGetter(owner, field, name, primitiveBoolean);
+            if (getterName == null) {
+                throw new InvalidClassException("Private field " + name + " needs a getter to generate " + generated, field);
+            }
+            getter = "value." + getterName + "()";
+        }
+
+        if (accessible && !modifiers.contains(Modifier.FINAL)) {
+            return new AdapterProperty(jsonName, field.asType(), getter, "value." + name + " = ", false);
+        }
+
+        String setterName = findSetter(owner, field, name, primitiveBoolean);
+        if (setterName == null) {
+            throw new InvalidClassException("Field " + name + " needs a setter to generate " + generated, field);
+        }
+        return new AdapterProperty(jsonName, field.asType(), getter, "value." + setterName + "(", true);
+    }
+
+    private static String findGetter(TypeElement owner, VariableElement field, String name, boolean primitiveBoolean) {
+        List<String> candidates = new ArrayList<>();
+        if (primitiveBoolean) {
+            candidates.add(name.startsWith("is") && name.length() > 2 && Character.isUpperCase(name.charAt(2))
+                    ? name : "is" + capitalize(name));
+        }
+        candidates.add("get" + capitalize(name));
+        candidates.add(name);
+
+        for (String candidate : candidates) {
+            if (hasMethod(owner, candidate, 0)) return candidate;
+        }
+        // Lombok generates its accessors in the same compilation, so they may not be visible yet
+        return lombokAccessor(owner, field, "lombok.Getter") ? candidates.get(0) : null;
+    }
+
+    private static String findSetter(TypeElement owner, VariableElement field, String name, boolean primitiveBoolean) {
+        String base = primitiveBoolean && name.startsWith("is") && name.length() > 2 && Character.isUpperCase(name.charAt(2))
+                ? name.substring(2) : capitalize(name);
+        String setter = "set" + base;
+        if (hasMethod(owner, setter, 1)) return setter;
+        if (field.getModifiers().contains(Modifier.FINAL)) return null;
+
+        return lombokAccessor(owner, field, "lombok.Setter") ? setter : null;
+    }
+
+    private static boolean lombokAccessor(TypeElement owner, VariableElement field, String accessor) {
+        AnnotationMirror onField = annotation(field, accessor);
+        if (onField != null) return visible(onField);
+
+        AnnotationMirror onClass = annotation(owner, accessor);
+        if (onClass != null) return visible(onClass);
+
+        if (annotation(owner, "lombok.Data") != null) return true;
+        return accessor.equals("lombok.Getter") && annotation(owner, "lombok.Value") != null;
+    }
+
+    private static boolean visible(AnnotationMirror lombokAnnotation) {
+        Object level = annotationValue(lombokAnnotation, "value");
+        if (level == null) return true;
+
+        String name = level.toString();
+        return !name.endsWith("NONE") && !name.endsWith("PRIVATE");
+    }
+
+    static boolean hasNoArgsConstructor(TypeElement type) {
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        AnnotationMirror noArgs = annotation(type, "lombok.NoArgsConstructor");
+        if (noArgs != null) {
+            Object access = annotationValue(noArgs, "access");
+            return access == null || !access.toString().endsWith("PRIVATE");
+        }
+        return constructors.isEmpty();
+    }
+
+    private static boolean hasMethod(TypeElement owner, String name, int parameters) {
+        for (TypeElement current = owner; current != null; current = superclass(current)) {
+            for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == parameters
+                        && !method.getModifiers().contains(Modifier.PRIVATE)
+                        && !method.getModifiers().contains(Modifier.STATIC)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) return null;
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    static AnnotationMirror annotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    static Object annotationValue(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+}
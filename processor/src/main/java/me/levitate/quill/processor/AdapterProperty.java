@@ -0,0 +1,19 @@
+package me.levitate.quill.processor;
+
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * A property of a value class as it appears in JSON, with the source snippets used to read and write it.
+ *
+ * @param jsonName The name of the property in JSON
+ * @param type The declared type of the property
+ * @param getter Expression reading the property from {@code value}
+ * @param setter Statement prefix assigning the property on {@code value}, completed with the new value and {@code );} or {@code ;}
+ * @param setterIsMethod Whether the setter is a method call rather than a field assignment
+ */
+record AdapterProperty(String jsonName, TypeMirror type, String getter, String setter, boolean setterIsMethod) {
+
+    String assign(String expression) {
+        return setterIsMethod ? setter + expression + ");" : setter + expression + ";";
+    }
+}
@@ -0,0 +1,220 @@
+package me.levitate.quill.processor;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.*;
+import javax.lang.model.util.Types;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Renders the source of a generated adapter.
+ */
+class AdapterSource {
+    private final Types types;
+    private final String packageName;
+    private final String adapterName;
+    private final String targetName;
+    private final boolean isPublic;
+    private final boolean record;
+    private final List<AdapterProperty> properties;
+    private final StringBuilder out = new StringBuilder();
+
+    AdapterSource(Types types, String packageName, String adapterName, String targetName,
+                  boolean isPublic, boolean record, List<AdapterProperty> properties) {
+        this.types = types;
+        this.packageName = packageName;
+        this.adapterName = adapterName;
+        this.targetName = targetName;
+        this.isPublic = isPublic;
+        this.record = record;
+        this.properties = properties;
+    }
+
+    String render() {
+        line("// Generated by the Quill JSON adapter processor, do not edit.");
+        if (!packageName.isEmpty()) {
+            line("package " + packageName + ";");
+        }
+        line("");
+        line("import com.squareup.moshi.JsonAdapter;");
+        line("import com.squareup.moshi.JsonReader;");
+        line("import com.squareup.moshi.JsonWriter;");
+        line("import com.squareup.moshi.Moshi;");
+        line("import com.squareup.moshi.Types;");
+        line("");
+        line("import java.io.IOException;");
+        line("");
+        line((isPublic ? "public " : "") + "final class " + adapterName + " extends JsonAdapter<" + targetName + "> {");
+
+        StringJoiner names = new StringJoiner(", ");
+        properties.forEach(property -> names.add(quote(property.jsonName())));
+        line("    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(" + names + ");");
+        line("");
+        for (int i = 0; i < properties.size(); i++) {
+            line("    private final JsonAdapter<" + typeName(boxed(properties.get(i).type())) + "> adapter" + i + ";");
+        }
+        line("");
+
+        renderConstructor();
+        line("");
+        renderFromJson();
+        line("");
+        renderToJson();
+        line("");
+        line("    @Override");
+        line("    public String toString() {");
+        line("        return " + quote("GeneratedJsonAdapter(" + targetName + ")") + ";");
+        line("    }");
+        line("}");
+        return out.toString();
+    }
+
+    private void renderConstructor() {
+        line("    public " + adapterName + "(Moshi moshi) {");
+        for (int i = 0; i < properties.size(); i++) {
+            line("        this.adapter" + i + " = moshi.adapter(" + typeExpression(properties.get(i).type()) + ");");
+        }
+        line("    }");
+    }
+
+    private void renderFromJson() {
+        line("    @Override");
+        line("    public " + targetName + " fromJson(JsonReader reader) throws IOException {");
+        line("        if (reader.peek() == JsonReader.Token.NULL) {");
+        line("            return reader.nextNull();");
+        line("        }");
+        line("");
+
+        if (record) {
+            for (int i = 0; i < properties.size(); i++) {
+                TypeMirror type = properties.get(i).type();
+                line("        " + typeName(type) + " value" + i + " = " + defaultValue(type) + ";");
+            }
+        } else {
+            line("        " + targetName + " value = new " + targetName + "();");
+        }
+
+        line("        reader.beginObject();");
+        line("        while (reader.hasNext()) {");
+        line("            switch (reader.selectName(OPTIONS)) {");
+        for (int i = 0; i < properties.size(); i++) {
+            String read = "adapter" + i + ".fromJson(reader)";
+            String statement = record ? "value" + i + " = " + read + ";" : properties.get(i).assign(read);
+            line("                case " + i + " -> " + statement);
+        }
+        line("                default -> {");
+        line("                    reader.skipName();");
+        line("                    reader.skipValue();");
+        line("                }");
+        line("            }");
+        line("        }");
+        line("        reader.endObject();");
+
+        if (record) {
+            StringJoiner arguments = new StringJoiner(", ");
+            for (int i = 0; i < properties.size(); i++) {
+                arguments.add("value" + i);
+            }
+            line("        return new " + targetName + "(" + arguments + ");");
+        } else {
+            line("        return value;");
+        }
+        line("    }");
+    }
+
+    private void renderToJson() {
+        line("    @Override");
+        line("    public void toJson(JsonWriter writer, " + targetName + " value) throws IOException {");
+        line("        if (value == null) {");
+        line("            writer.nullValue();");
+        line("            return;");
+        line("        }");
+        line("");
+        line("        writer.beginObject();");
+        for (int i = 0; i < properties.size(); i++) {
+            AdapterProperty property = properties.get(i);
+            line("        writer.name(" + quote(property.jsonName()) + ");");
+            line("        adapter" + i + ".toJson(writer, " + property.getter() + ");");
+        }
+        line("        writer.endObject();");
+        line("    }");
+    }
+
+    private TypeMirror boxed(TypeMirror type) {
+        return type.getKind().isPrimitive() ? types.boxedClass((PrimitiveType) type).asType() : type;
+    }
+
+    /**
+     * Renders the type as source, without any type-use annotations it carries.
+     */
+    static String typeName(TypeMirror type) {
+        return switch (type.getKind()) {
+            case DECLARED -> {
+                DeclaredType declared = (DeclaredType) type;
+                String raw = ((TypeElement) declared.asElement()).getQualifiedName().toString();
+                if (declared.getTypeArguments().isEmpty()) yield raw;
+
+                StringJoiner arguments = new StringJoiner(", ", "<", ">");
+                declared.getTypeArguments().forEach(argument -> arguments.add(typeName(argument)));
+                yield raw + arguments;
+            }
+            case ARRAY -> typeName(((ArrayType) type).getComponentType()) + "[]";
+            case WILDCARD -> {
+                WildcardType wildcard = (WildcardType) type;
+                if (wildcard.getExtendsBound() != null) yield "? extends " + typeName(wildcard.getExtendsBound());
+                if (wildcard.getSuperBound() != null) yield "? super " + typeName(wildcard.getSuperBound());
+                yield "?";
+            }
+            case TYPEVAR -> throw new IllegalArgumentException("Type variables are not supported: " + type);
+            default -> type.getKind().name().toLowerCase();
+        };
+    }
+
+    /**
+     * Renders an expression creating the reflective {@link java.lang.reflect.Type} Moshi resolves the adapter for.
+     */
+    private String typeExpression(TypeMirror type) {
+        return switch (type.getKind()) {
+            case DECLARED -> {
+                DeclaredType declared = (DeclaredType) type;
+                String raw = ((TypeElement) declared.asElement()).getQualifiedName() + ".class";
+                if (declared.getTypeArguments().isEmpty()) yield raw;
+
+                StringJoiner arguments = new StringJoiner(", ");
+                declared.getTypeArguments().forEach(argument -> arguments.add(typeExpression(argument)));
+                yield "Types.newParameterizedType(" + raw + ", " + arguments + ")";
+            }
+            case ARRAY -> {
+                TypeMirror component = ((ArrayType) type).getComponentType();
+                yield component.getKind().isPrimitive()
+                        ? typeName(type) + ".class"
+                        : "Types.arrayOf(" + typeExpression(component) + ")";
+            }
+            case WILDCARD -> {
+                WildcardType wildcard = (WildcardType) type;
+                if (wildcard.getSuperBound() != null) yield "Types.supertypeOf(" + typeExpression(wildcard.getSuperBound()) + ")";
+                if (wildcard.getExtendsBound() != null) yield "Types.subtypeOf(" + typeExpression(wildcard.getExtendsBound()) + ")";
+                yield "Types.subtypeOf(Object.class)";
+            }
+            case TYPEVAR -> throw new IllegalArgumentException("Type variables are not supported: " + type);
+            default -> typeName(type) + ".class";
+        };
+    }
+
+    private static String defaultValue(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "false";
+            case CHAR -> "'\\0'";
+            case BYTE, SHORT, INT, LONG, FLOAT, DOUBLE -> "0";
+            default -> "null";
+        };
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private void line(String line) {
+        out.append(line).append('\n');
+    }
+}
@@ -0,0 +1,162 @@
+package me.levitate.quill.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates config binders for classes annotated with {@code @Config(generateBinder = true)}.
+ * <p>
+ * The config manager looks up a class named {@code <Name>ConfigBinder} next to such configs, and uses it to create,
+ * fill and merge the config with straight-line code instead of reflection. The generated code doesn't reference
+ * Jackson, so it compiles against Quill's relocated Jackson as well. Properties are the non-static,
+ * non-transient fields, named by {@code @JsonProperty} when present and skipped with {@code @JsonIgnore},
+ * and their {@code @Comment}s are written before them.
+ * </p>
+ * <p>
+ * Private fields are accessed through their getters and setters, including those Lombok generates.
+ * Opted-in configs a binder can't be generated for are reported as errors.
+ * </p>
+ */
+@SupportedAnnotationTypes(ConfigBinderProcessor.CONFIG)
+public class ConfigBinderProcessor extends AbstractProcessor {
+    static final String CONFIG = "me.levitate.quill.config.annotation.Config";
+    private static final String COMMENT = "me.levitate.quill.config.annotation.Comment";
+    // Quill's shaded jar relocates Jackson, so its annotations may be used under either package
+    private static final List<String> JACKSON_PACKAGES = List.of("com.fasterxml.jackson.annotation.", "me.levitate.jackson.annotation.");
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (!generateBinder(element)) continue;
+
+                try {
+                    generate((TypeElement) element);
+                } catch (InvalidClassException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.element);
+                } catch (IllegalArgumentException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), element);
+                } catch (IOException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "Failed to write config binder: " + e.getMessage(), element);
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean generateBinder(Element element) {
+        AnnotationMirror config = Accessors.annotation(element, CONFIG);
+        return config != null && Boolean.TRUE.equals(Accessors.annotationValue(config, "generateBinder"));
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        validate(type);
+
+        List<AdapterProperty> properties = new ArrayList<>();
+        List<String> comments = new ArrayList<>();
+        collectProperties(type, properties, comments);
+
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleBinaryName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        // ConfigBinders replaces the nested class separator in the same way when looking up binders
+        String binderName = simpleBinaryName.replace('$', '_') + "ConfigBinder";
+
+        ConfigBinderSource source = new ConfigBinderSource(processingEnv.getTypeUtils(), packageName, binderName,
+                type.getQualifiedName().toString(), properties, comments);
+
+        String qualifiedName = packageName.isEmpty() ? binderName : packageName + "." + binderName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.render());
+        }
+    }
+
+    private void validate(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS) {
+            throw new InvalidClassException("Config binders can only be generated for classes", type);
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new InvalidClassException("Config binders can't be generated for generic classes", type);
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new InvalidClassException("Config binders can't be generated for abstract classes", type);
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+            throw new InvalidClassException("Config binders can't be generated for inner classes", type);
+        }
+        for (Element enclosing = type; enclosing.getKind() != ElementKind.PACKAGE; enclosing = enclosing.getEnclosingElement()) {
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new InvalidClassException("Config binders can't be generated for private classes", enclosing);
+            }
+        }
+        if (!Accessors.hasNoArgsConstructor(type)) {
+            throw new InvalidClassException("Config binders need a non-private no-argument constructor", type);
+        }
+    }
+
+    private void collectProperties(TypeElement type, List<AdapterProperty> properties, List<String> comments) {
+        // Superclass fields come first, like in Jackson's reflective binding
+        Deque<TypeElement> hierarchy = new ArrayDeque<>();
+        for (TypeElement current = type; current != null; current = Accessors.superclass(current)) {
+            String name = current.getQualifiedName().toString();
+            if (name.startsWith("java.") || name.startsWith("javax.")) break;
+            hierarchy.push(current);
+        }
+
+        Set<String> names = new HashSet<>();
+        for (TypeElement current : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) continue;
+                if (ignored(field)) continue;
+
+                String name = field.getSimpleName().toString();
+                String propertyName = propertyName(field, name);
+                if (!names.add(propertyName)) {
+                    throw new InvalidClassException("Conflicting config property name: " + propertyName, field);
+                }
+
+                properties.add(Accessors.classProperty(current, field, name, propertyName, "a config binder"));
+                AnnotationMirror comment = Accessors.annotation(field, COMMENT);
+                comments.add(comment == null ? null : (String) Accessors.annotationValue(comment, "value"));
+            }
+        }
+    }
+
+    private boolean ignored(Element element) {
+        AnnotationMirror ignore = jacksonAnnotation(element, "JsonIgnore");
+        if (ignore == null) return false;
+
+        Object value = Accessors.annotationValue(ignore, "value");
+        return value == null || Boolean.TRUE.equals(value);
+    }
+
+    private String propertyName(Element element, String fallback) {
+        AnnotationMirror property = jacksonAnnotation(element, "JsonProperty");
+        if (property == null) return fallback;
+
+        Object name = Accessors.annotationValue(property, "value");
+        return name == null || name.toString().isEmpty() ? fallback : name.toString();
+    }
+
+    private AnnotationMirror jacksonAnnotation(Element element, String simpleName) {
+        for (String jacksonPackage : JACKSON_PACKAGES) {
+            AnnotationMirror mirror = Accessors.annotation(element, jacksonPackage + simpleName);
+            if (mirror != null) return mirror;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,191 @@
+package me.levitate.quill.processor;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.*;
+import javax.lang.model.util.Types;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Renders the source of a generated config binder. The binder only uses plain Java types,
+ * Quill itself binds it to its Jackson, which may be relocated.
+ */
+class ConfigBinderSource {
+    private final Types types;
+    private final String packageName;
+    private final String binderName;
+    private final String targetName;
+    private final List<AdapterProperty> properties;
+    private final List<String> comments;
+    private final StringBuilder out = new StringBuilder();
+
+    /**
+     * @param comments The comment of each property, or null where it has none
+     */
+    ConfigBinderSource(Types types, String packageName, String binderName, String targetName,
+                       List<AdapterProperty> properties, List<String> comments) {
+        this.types = types;
+        this.packageName = packageName;
+        this.binderName = binderName;
+        this.targetName = targetName;
+        this.properties = properties;
+        this.comments = comments;
+    }
+
+    String render() {
+        line("// Generated by the Quill config binder processor, do not edit.");
+        if (!packageName.isEmpty()) {
+            line("package " + packageName + ";");
+        }
+        line("");
+        line("import me.levitate.quill.config.binder.ConfigBinder;");
+        line("import me.levitate.quill.config.binder.ConfigTypes;");
+        line("");
+        line("import java.lang.reflect.Type;");
+        line("import java.util.Arrays;");
+        line("import java.util.Collections;");
+        line("import java.util.List;");
+        line("");
+        line("public final class " + binderName + " implements ConfigBinder<" + targetName + "> {");
+
+        StringJoiner names = new StringJoiner(", ");
+        StringJoiner typeList = new StringJoiner(", ");
+        StringJoiner commentList = new StringJoiner(", ");
+        for (int i = 0; i < properties.size(); i++) {
+            names.add(quote(properties.get(i).jsonName()));
+            typeList.add(typeExpression(properties.get(i).type()));
+            commentList.add(comments.get(i) == null ? "null" : quote(comments.get(i)));
+        }
+        line("    private static final List<String> PROPERTIES = List.of(" + names + ");");
+        line("    private static final List<Type> TYPES = List.of(" + typeList + ");");
+        // Comments may be null, which List.of rejects
+        line("    private static final List<String> COMMENTS = Collections.unmodifiableList(Arrays.asList(" + commentList + "));");
+        line("");
+        line("    @Override");
+        line("    public Class<" + targetName + "> type() {");
+        line("        return " + targetName + ".class;");
+        line("    }");
+        line("");
+        line("    @Override");
+        line("    public " + targetName + " create() {");
+        line("        return new " + targetName + "();");
+        line("    }");
+        line("");
+        line("    @Override");
+        line("    public List<String> properties() {");
+        line("        return PROPERTIES;");
+        line("    }");
+        line("");
+        line("    @Override");
+        line("    public List<Type> propertyTypes() {");
+        line("        return TYPES;");
+        line("    }");
+        line("");
+        line("    @Override");
+        line("    public List<String> comments() {");
+        line("        return COMMENTS;");
+        line("    }");
+        line("");
+        renderGet();
+        line("");
+        renderSet();
+        line("");
+        renderMergeDefaults();
+        line("}");
+        return out.toString();
+    }
+
+    private void renderGet() {
+        line("    @Override");
+        line("    public Object get(" + targetName + " config, int property) {");
+        line("        " + targetName + " value = config;");
+        line("        return switch (property) {");
+        for (int i = 0; i < properties.size(); i++) {
+            line("            case " + i + " -> " + properties.get(i).getter() + ";");
+        }
+        line("            default -> throw new IndexOutOfBoundsException(property);");
+        line("        };");
+        line("    }");
+    }
+
+    private void renderSet() {
+        line("    @Override");
+        line("    @SuppressWarnings(\"unchecked\")");
+        line("    public void set(" + targetName + " config, int property, Object read) {");
+        line("        " + targetName + " value = config;");
+        line("        switch (property) {");
+        for (int i = 0; i < properties.size(); i++) {
+            AdapterProperty property = properties.get(i);
+            TypeMirror type = property.type();
+            if (type.getKind().isPrimitive()) {
+                // Null keeps the default of a primitive
+                String boxed = types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+                line("            case " + i + " -> {");
+                line("                if (read != null) " + property.assign("(" + boxed + ") read"));
+                line("            }");
+            } else {
+                line("            case " + i + " -> " + property.assign("(" + AdapterSource.typeName(type) + ") read"));
+            }
+        }
+        line("            default -> throw new IndexOutOfBoundsException(property);");
+        line("        }");
+        line("    }");
+    }
+
+    private void renderMergeDefaults() {
+        line("    @Override");
+        line("    public boolean mergeDefaults(" + targetName + " value, " + targetName + " defaults) {");
+        line("        boolean merged = false;");
+        for (AdapterProperty property : properties) {
+            if (property.type().getKind().isPrimitive()) continue;
+
+            String defaultGetter = "defaults." + property.getter().substring("value.".length());
+            line("        if (" + property.getter() + " == null && " + defaultGetter + " != null) {");
+            line("            " + property.assign(defaultGetter));
+            line("            merged = true;");
+            line("        }");
+        }
+        line("        return merged;");
+        line("    }");
+    }
+
+    /**
+     * Renders an expression creating the reflective {@link java.lang.reflect.Type} the property is read as.
+     */
+    private String typeExpression(TypeMirror type) {
+        return switch (type.getKind()) {
+            case DECLARED -> {
+                DeclaredType declared = (DeclaredType) type;
+                String raw = ((TypeElement) declared.asElement()).getQualifiedName() + ".class";
+                if (declared.getTypeArguments().isEmpty()) yield raw;
+
+                StringJoiner arguments = new StringJoiner(", ");
+                declared.getTypeArguments().forEach(argument -> arguments.add(typeExpression(argument)));
+                yield "ConfigTypes.parameterized(" + raw + ", " + arguments + ")";
+            }
+            case ARRAY -> {
+                TypeMirror component = ((ArrayType) type).getComponentType();
+                String componentType = typeExpression(component);
+                yield componentType.endsWith(".class")
+                        ? AdapterSource.typeName(type) + ".class"
+                        : "ConfigTypes.arrayOf(" + componentType + ")";
+            }
+            case WILDCARD -> {
+                WildcardType wildcard = (WildcardType) type;
+                if (wildcard.getSuperBound() != null) yield "ConfigTypes.supertypeOf(" + typeExpression(wildcard.getSuperBound()) + ")";
+                if (wildcard.getExtendsBound() != null) yield "ConfigTypes.subtypeOf(" + typeExpression(wildcard.getExtendsBound()) + ")";
+                yield "ConfigTypes.subtypeOf(Object.class)";
+            }
+            case TYPEVAR -> throw new IllegalArgumentException("Type variables are not supported: " + type);
+            default -> AdapterSource.typeName(type) + ".class";
+        };
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+
+    private void line(String line) {
+        out.append(line).append('\n');
+    }
+}
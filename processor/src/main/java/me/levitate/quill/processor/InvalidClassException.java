@@ -0,0 +1,15 @@
+package me.levitate.quill.processor;
+
+import javax.lang.model.element.Element;
+
+/**
+ * Thrown when code can't be generated for a class, reported on the offending element.
+ */
+class InvalidClassException extends RuntimeException {
+    final Element element;
+
+    InvalidClassException(String message, Element element) {
+        super(message);
+        this.element = element;
+    }
+}
@@ -0,0 +1,152 @@
+package me.levitate.quill.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates Moshi adapters for classes and records annotated with {@code @JsonClass(generateAdapter = true)}.
+ * <p>
+ * Moshi looks up a class named {@code <Name>JsonAdapter} next to every such class, so storages use the generated
+ * adapters without any registration. The generated adapters encode the same JSON as Moshi's reflective adapters:
+ * non-static, non-transient fields, named by {@code @Json(name)} when present.
+ * </p>
+ * <p>
+ * Private fields are accessed through their getters and setters, including those Lombok generates.
+ * Classes need a no-argument constructor, records are created through their canonical constructor.
+ * </p>
+ */
+@SupportedAnnotationTypes(JsonAdapterProcessor.JSON_CLASS)
+public class JsonAdapterProcessor extends AbstractProcessor {
+    static final String JSON_CLASS = "com.squareup.moshi.JsonClass";
+    private static final String JSON = "com.squareup.moshi.Json";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (!generateAdapter(element)) continue;
+
+                try {
+                    generate((TypeElement) element);
+                } catch (InvalidClassException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.element);
+                } catch (IllegalArgumentException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), element);
+                } catch (IOException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "Failed to write JSON adapter: " + e.getMessage(), element);
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean generateAdapter(Element element) {
+        AnnotationMirror jsonClass = Accessors.annotation(element, JSON_CLASS);
+        return jsonClass != null && Boolean.TRUE.equals(Accessors.annotationValue(jsonClass, "generateAdapter"));
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        validate(type);
+
+        boolean record = type.getKind() == ElementKind.RECORD;
+        List<AdapterProperty> properties = record ? recordProperties(type) : classProperties(type);
+
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleBinaryName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        // Moshi replaces the nested class separator when looking up generated adapters
+        String adapterName = simpleBinaryName.replace('$', '_') + "JsonAdapter";
+
+        AdapterSource source = new AdapterSource(processingEnv.getTypeUtils(), packageName, adapterName,
+                type.getQualifiedName().toString(), type.getModifiers().contains(Modifier.PUBLIC), record, properties);
+
+        String qualifiedName = packageName.isEmpty() ? adapterName : packageName + "." + adapterName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.render());
+        }
+    }
+
+    private void validate(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS && type.getKind() != ElementKind.RECORD) {
+            throw new InvalidClassException("@JsonClass adapters can only be generated for classes and records", type);
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new InvalidClassException("@JsonClass adapters can't be generated for generic classes", type);
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new InvalidClassException("@JsonClass adapters can't be generated for abstract classes", type);
+        }
+
+        if (type.getKind() == ElementKind.CLASS && type.getNestingKind() == NestingKind.MEMBER
+                && !type.getModifiers().contains(Modifier.STATIC)) {
+            throw new InvalidClassException("@JsonClass inner classes must be static", type);
+        }
+        for (Element enclosing = type; enclosing.getKind() != ElementKind.PACKAGE; enclosing = enclosing.getEnclosingElement()) {
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new InvalidClassException("@JsonClass classes must not be private", enclosing);
+            }
+        }
+    }
+
+    private List<AdapterProperty> recordProperties(TypeElement type) {
+        List<AdapterProperty> properties = new ArrayList<>();
+        for (RecordComponentElement component : type.getRecordComponents()) {
+            String name = component.getSimpleName().toString();
+            properties.add(new AdapterProperty(jsonName(component, name), component.asType(),
+                    "value." + name + "()", null, false));
+        }
+        return properties;
+    }
+
+    private List<AdapterProperty> classProperties(TypeElement type) {
+        if (!Accessors.hasNoArgsConstructor(type)) {
+            throw new InvalidClassException("@JsonClass classes need a non-private no-argument constructor", type);
+        }
+
+        // Superclass fields come first, like in Moshi's reflective adapter
+        Deque<TypeElement> hierarchy = new ArrayDeque<>();
+        for (TypeElement current = type; current != null; current = Accessors.superclass(current)) {
+            String name = current.getQualifiedName().toString();
+            if (name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("kotlin.")) break;
+            hierarchy.push(current);
+        }
+
+        List<AdapterProperty> properties = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (TypeElement current : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) continue;
+
+                String name = field.getSimpleName().toString();
+                String jsonName = jsonName(field, name);
+                if (!names.add(jsonName)) {
+                    throw new InvalidClassException("Conflicting JSON property name: " + jsonName, field);
+                }
+                properties.add(Accessors.classProperty(current, field, name, jsonName, "a JSON adapter"));
+            }
+        }
+        return properties;
+    }
+
+    private String jsonName(Element element, String fallback) {
+        AnnotationMirror json = Accessors.annotation(element, JSON);
+        if (json == null) return fallback;
+
+        Object name = Accessors.annotationValue(json, "name");
+        return name == null ? fallback : name.toString();
+    }
+}
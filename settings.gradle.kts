@@ -1 +1,3 @@
-rootProject.name = "Quill"
\ No newline at end of file
+rootProject.name = "Quill"
+
+include("processor")
@@ -1,19 +1,26 @@
 package me.levitate.quill.cache.redis;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import me.levitate.quill.cache.Cache;
 import me.levitate.quill.cache.CacheManager;
 import me.levitate.quill.cache.config.RedisConfig;
 import me.levitate.quill.cache.local.LocalCache;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.logging.Level;
 
 public class RedisCache<K, V> implements Cache<K, V> {
+    private static final int SCAN_BATCH_SIZE = 500;
+
     private final RedisConfig redisConfig;
     private final CacheManager cacheManager;
     private final Map<K, V> localCache;
@@ -74,7 +81,16 @@ public class RedisCache<K, V> implements Cache<K, V> {
 
     @Override
     public void putAll(Map<K, V> map) {
-        map.forEach(this::put);
+        // The caller may change the map before the write runs
+        Map<K, V> copy = new HashMap<>(map);
+        localCache.putAll(copy);
+        CompletableFuture.runAsync(() -> {
+            try {
+                writeRedisBatch(false, copy, Collections.emptyList());
+            } catch (Exception e) {
+                cacheManager.getPlugin().getLogger().log(Level.WARNING, "Failed to put values in Redis", e);
+            }
+        });
     }
 
     @Override
@@ -90,7 +106,95 @@ public class RedisCache<K, V> implements Cache<K, V> {
 
     @Override
     public void removeAll(Collection<K> keys) {
-        keys.forEach(this::remove);
+        try {
+            writeBatch(false, Collections.emptyMap(), keys);
+        } catch (Exception e) {
+            cacheManager.getPlugin().getLogger().log(Level.WARNING, "Failed to remove values from Redis", e);
+        }
+    }
+
+    /**
+     * Applies several changes on the calling thread, pipelined over a single connection.
+     * Unlike the other methods, failures are thrown so the caller can retry.
+     *
+     * @param clear Whether to remove every entry before applying the changes
+     * @param puts The values to store
+     * @param removes The keys to remove
+     */
+    public void writeBatch(boolean clear, Map<K, V> puts, Collection<K> removes) {
+        if (clear) localCache.clear();
+        localCache.putAll(puts);
+        removes.forEach(localCache::remove);
+        writeRedisBatch(clear, puts, removes);
+    }
+
+    private void writeRedisBatch(boolean clear, Map<K, V> puts, Collection<K> removes) {
+        try (Jedis jedis = cacheManager.getJedisConnection(redisConfig)) {
+            Pipeline pipeline = jedis.pipelined();
+            if (clear) {
+                for (String key : jedis.keys(redisConfig.getKeyPrefix() + "*")) {
+                    pipeline.del(key);
+                }
+            }
+            for (Map.Entry<K, V> entry : puts.entrySet()) {
+                pipeline.set(getRedisKey(entry.getKey()), objectMapper.writeValueAsString(entry.getValue()));
+            }
+            for (K key : removes) {
+                pipeline.del(getRedisKey(key));
+            }
+            pipeline.sync();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to write batch to Redis: " + redisConfig.getKeyPrefix(), e);
+        }
+    }
+
+    /**
+     * Visits every entry stored in Redis under this cache's prefix, including entries that aren't cached locally.
+     * Keys are listed with SCAN and sorted, so every call visits them in the same order,
+     * and the values are fetched in batches with MGET. Runs on the calling thread, failures are thrown.
+     *
+     * @param keyParser Turns a Redis key, without the prefix, back into a key
+     * @param valueType The type the values are read as
+     * @param action The action to run for each entry
+     */
+    public void forEachStored(Function<String, K> keyParser, Class<V> valueType, BiConsumer<K, V> action) {
+        String prefix = redisConfig.getKeyPrefix();
+        // SCAN may return a key more than once
+        Set<String> redisKeys = new TreeSet<>();
+        try (Jedis jedis = cacheManager.getJedisConnection(redisConfig)) {
+            ScanParams params = new ScanParams().match(prefix + "*").count(SCAN_BATCH_SIZE);
+            String cursor = ScanParams.SCAN_POINTER_START;
+            do {
+                ScanResult<String> page = jedis.scan(cursor, params);
+                redisKeys.addAll(page.getResult());
+                cursor = page.getCursor();
+            } while (!cursor.equals(ScanParams.SCAN_POINTER_START));
+        }
+
+        List<String> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+        Iterator<String> iterator = redisKeys.iterator();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            if (batch.size() < SCAN_BATCH_SIZE && iterator.hasNext()) continue;
+
+            List<String> values;
+            try (Jedis jedis = cacheManager.getJedisConnection(redisConfig)) {
+                values = jedis.mget(batch.toArray(new String[0]));
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                String value = values.get(i);
+                // Removed since the keys were listed
+                if (value == null) continue;
+
+                String redisKey = batch.get(i);
+                try {
+                    action.accept(keyParser.apply(redisKey.substring(prefix.length())), objectMapper.readValue(value, valueType));
+                } catch (JsonProcessingException e) {
+                    throw new RuntimeException("Failed to read value from Redis: " + redisKey, e);
+                }
+            }
+            batch.clear();
+        }
     }
 
     @Override
@@ -20,17 +20,56 @@ import java.util.stream.Collectors;
 public class Chat {
     private static final MiniMessage miniMessage = MiniMessage.miniMessage();
     private static final LegacyComponentSerializer legacySerializer = LegacyComponentSerializer.legacyAmpersand();
-    private static final Pattern soundPattern = Pattern.compile("<sound:([A-Z_]+):([0-9.]+):([0-9.]+)>");
+    static final Pattern soundPattern = Pattern.compile("<sound:([A-Z_]+):([0-9.]+):([0-9.]+)>");
     private static final Pattern clickPattern = Pattern.compile("<click:(\\w+):([^>]+)>(.+?)</click>");
     private static final Pattern hoverPattern = Pattern.compile("<hover:([^>]+)>(.+?)</hover>");
+    private static final int DEFAULT_CACHE_SIZE = 4096;
+
+    // Parsed text by input, components are immutable so they can be shared
+    private static volatile ComponentCache<Component> translateCache = new ComponentCache<>(DEFAULT_CACHE_SIZE);
+    private static volatile ComponentCache<String> colorizeCache = new ComponentCache<>(DEFAULT_CACHE_SIZE);
 
     public static Component translate(String text) {
+        if (text == null || text.isEmpty()) {
+            return Component.empty();
+        }
+        return translateCache.get(text, miniMessage::deserialize);
+    }
+
+    /**
+     * Parses text without caching it, for text with placeholders filled in, which is rarely sent twice
+     * and would only evict the cached strings.
+     */
+    static Component parse(String text) {
         if (text == null || text.isEmpty()) {
             return Component.empty();
         }
         return miniMessage.deserialize(text);
     }
 
+    /**
+     * Sets how many parsed strings are cached by {@link #translate(String)} and {@link #colorize(String)} each,
+     * replacing the current caches. 0 disables caching.
+     */
+    public static void setCacheSize(int maxSize) {
+        translateCache = new ComponentCache<>(maxSize);
+        colorizeCache = new ComponentCache<>(maxSize);
+    }
+
+    /**
+     * Gets the cache of {@link #translate(String)}, for its hit rate and size.
+     */
+    public static ComponentCache<Component> getTranslateCache() {
+        return translateCache;
+    }
+
+    /**
+     * Gets the cache of {@link #colorize(String)}, for its hit rate and size.
+     */
+    public static ComponentCache<String> getColorizeCache() {
+        return colorizeCache;
+    }
+
     public static String translateLegacy(Component text) {
         return text != null ? legacySerializer.serialize(text) : "";
     }
@@ -84,6 +123,13 @@ public class Chat {
     }
 
     private static Component processInteractiveElements(String text) {
+        return parse(expandInteractiveElements(text));
+    }
+
+    /**
+     * Rewrites the short click and hover tags into MiniMessage tags.
+     */
+    static String expandInteractiveElements(String text) {
         // Process click events
         Matcher clickMatcher = clickPattern.matcher(text);
         StringBuffer clickBuffer = new StringBuffer();
@@ -120,15 +166,56 @@ public class Chat {
             hoverMatcher.appendReplacement(hoverBuffer, Matcher.quoteReplacement(replacement));
         }
         hoverMatcher.appendTail(hoverBuffer);
-        text = hoverBuffer.toString();
-
-        return miniMessage.deserialize(text);
+        return hoverBuffer.toString();
     }
 
-    private static String removeSoundTags(String text) {
+    static String removeSoundTags(String text) {
         return soundPattern.matcher(text).replaceAll("");
     }
 
+    /**
+     * Sends a precompiled message, without parsing it again.
+     */
+    public static void sendMessage(CommandSender sender, MessageTemplate template, Object... placeholders) {
+        Objects.requireNonNull(sender, "Sender cannot be null");
+
+        if (template == null || template.isEmpty()) {
+            return;
+        }
+
+        if (sender instanceof Player player) {
+            template.playSounds(player);
+            player.sendMessage(template.render(player, placeholders));
+        } else {
+            sender.sendMessage(template.render(placeholders));
+        }
+    }
+
+    /**
+     * Sends a precompiled message to a list of players
+     */
+    public static void sendMessage(List<Player> players, MessageTemplate template, Object... placeholders) {
+        Objects.requireNonNull(players, "Players collection cannot be null");
+        players.forEach(player -> sendMessage(player, template, placeholders));
+    }
+
+    public static void sendActionBar(Player player, MessageTemplate template, Object... placeholders) {
+        Objects.requireNonNull(player, "Player cannot be null");
+        if (template == null || template.isEmpty()) {
+            return;
+        }
+
+        player.sendActionBar(template.render(player, placeholders));
+    }
+
+    public static void broadcast(MessageTemplate template, Object... placeholders) {
+        if (template == null || template.isEmpty()) {
+            return;
+        }
+
+        Bukkit.getServer().sendMessage(template.render(placeholders));
+    }
+
     public static void sendTitle(Player player, String title, String subtitle, int fadeIn, int stay, int fadeOut) {
         Objects.requireNonNull(player, "Player cannot be null");
 
@@ -139,10 +226,10 @@ public class Chat {
         );
 
         Component titleComponent = title != null ?
-                translate(PlaceholderFactory.setPlaceholders(player, title)) :
+                parse(PlaceholderFactory.setPlaceholders(player, title)) :
                 Component.empty();
         Component subtitleComponent = subtitle != null ?
-                translate(PlaceholderFactory.setPlaceholders(player, subtitle)) :
+                parse(PlaceholderFactory.setPlaceholders(player, subtitle)) :
                 Component.empty();
 
         Title titleObj = Title.title(titleComponent, subtitleComponent, times);
@@ -161,7 +248,7 @@ public class Chat {
 
         String processed = replacePlaceholders(text, placeholders);
         processed = PlaceholderFactory.setPlaceholders(player, processed);
-        player.sendActionBar(translate(processed));
+        player.sendActionBar(parse(processed));
     }
 
     public static void broadcast(String text, Object... placeholders) {
@@ -170,7 +257,7 @@ public class Chat {
         }
 
         String processed = replacePlaceholders(text, placeholders);
-        Component message = translate(processed);
+        Component message = parse(processed);
         Bukkit.getServer().sendMessage(message);
     }
 
@@ -181,7 +268,7 @@ public class Chat {
         }
 
         String processed = replacePlaceholders(text, placeholders);
-        Component message = translate(processed);
+        Component message = parse(processed);
         Bukkit.getServer().broadcast(message, permission);
     }
 
@@ -191,10 +278,9 @@ public class Chat {
         }
 
         String processed = replacePlaceholders(text, placeholders);
-        Component message = translate(processed);
         for (Player player : Bukkit.getOnlinePlayers()) {
             String playerProcessed = PlaceholderFactory.setPlaceholders(player, processed);
-            player.sendActionBar(translate(playerProcessed));
+            player.sendActionBar(parse(playerProcessed));
         }
     }
 
@@ -228,7 +314,7 @@ public class Chat {
 
     public static String colorize(String text) {
         if (text == null || text.isEmpty()) return text;
-        return translateLegacy(translate(text));
+        return colorizeCache.get(text, key -> translateLegacy(translate(key)));
     }
 
     public static List<String> colorize(List<String> texts) {
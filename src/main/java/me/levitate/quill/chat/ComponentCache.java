@@ -0,0 +1,140 @@
+package me.levitate.quill.chat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A bounded, thread-safe cache of parsed text, keyed by the input string.
+ * <p>
+ * Entries are spread over stripes, each a small LRU map with its own lock, so threads parsing different strings
+ * rarely contend. When a stripe is full its least recently used entry is evicted. Values are computed outside
+ * the lock, so two threads missing the same string at once may both parse it; the first result is kept.
+ * Cached values are shared, so they must be immutable, like components.
+ * </p>
+ *
+ * @param <V> Parsed value
+ */
+public class ComponentCache<V> {
+    private static final int MAX_STRIPES = 16;
+    // Small stripes evict unevenly, so small caches use fewer of them
+    private static final int MIN_STRIPE_SIZE = 64;
+    // Long strings are rarely repeated, and would take up a lot of memory
+    private static final int MAX_KEY_LENGTH = 1024;
+
+    private final int maxSize;
+    private final Stripe<V>[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxSize The most entries kept, 0 disables caching
+     */
+    @SuppressWarnings("unchecked")
+    public ComponentCache(int maxSize) {
+        if (maxSize < 0) throw new IllegalArgumentException("Cache size cannot be negative");
+
+        this.maxSize = maxSize;
+        int stripeCount = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, maxSize / MIN_STRIPE_SIZE)));
+        this.stripes = new Stripe[stripeCount];
+        int stripeSize = (maxSize + stripeCount - 1) / stripeCount;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(stripeSize);
+        }
+    }
+
+    /**
+     * Gets the cached value of the key, parsing and caching it on a miss.
+     */
+    public V get(String key, Function<String, V> parser) {
+        if (maxSize == 0 || key.length() > MAX_KEY_LENGTH) {
+            return parser.apply(key);
+        }
+
+        Stripe<V> stripe = stripeOf(key);
+        V value;
+        synchronized (stripe) {
+            value = stripe.get(key);
+        }
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+
+        misses.increment();
+        V parsed = parser.apply(key);
+        if (parsed == null) return null;
+
+        synchronized (stripe) {
+            V existing = stripe.putIfAbsent(key, parsed);
+            return existing != null ? existing : parsed;
+        }
+    }
+
+    public void clear() {
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * The share of lookups served from the cache, between 0 and 1.
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Resets the hit and miss counts.
+     */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+    }
+
+    private Stripe<V> stripeOf(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static class Stripe<V> extends LinkedHashMap<String, V> {
+        private final int maxSize;
+
+        private Stripe(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package me.levitate.quill.chat;
+
+import lombok.Getter;
+import me.levitate.quill.hook.hooks.PlaceholderFactory;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Sound;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A message parsed with MiniMessage once, when it is compiled, instead of on every send.
+ * <p>
+ * Config fields of this type are compiled by the {@link me.levitate.quill.config.ConfigManager} when the config loads.
+ * Placeholders are filled into the parsed component as plain text, so their values are never parsed as MiniMessage.
+ * Placeholders inside tag arguments, such as a click command, can't be filled into a parsed component,
+ * so such messages are parsed on every send like {@link Chat#sendMessage(org.bukkit.command.CommandSender, String, Object...)}.
+ * </p>
+ */
+public final class MessageTemplate {
+    private static final Pattern slotPattern = Pattern.compile("%[^%\\s]+%");
+    private static final Pattern tagSlotPattern = Pattern.compile("<[^>]*(%[^%\\s]+%|\\{[^{}\\s]+})[^>]*>");
+
+    @Getter
+    private final String source;
+    private final String text;
+    private final Component component;
+    private final List<SoundCue> sounds;
+    // PlaceholderAPI placeholders, resolved per player
+    private final List<String> slots;
+    private final boolean dynamic;
+
+    private MessageTemplate(String source) {
+        this.source = source;
+        this.sounds = parseSounds(source);
+
+        String processed = Chat.expandInteractiveElements(Chat.removeSoundTags(source));
+        this.text = processed;
+        this.dynamic = tagSlotPattern.matcher(processed).find();
+        this.component = dynamic ? null : Chat.parse(processed);
+
+        List<String> found = new ArrayList<>();
+        Matcher matcher = slotPattern.matcher(processed);
+        while (matcher.find()) {
+            if (!found.contains(matcher.group())) found.add(matcher.group());
+        }
+        this.slots = List.copyOf(found);
+    }
+
+    /**
+     * Parses a message into a template. Safe to call off the main thread.
+     */
+    public static MessageTemplate compile(String source) {
+        return new MessageTemplate(source == null ? "" : source);
+    }
+
+    public boolean isEmpty() {
+        return source.isEmpty();
+    }
+
+    /**
+     * Fills in the placeholders.
+     *
+     * @param placeholders Pairs of placeholder and value, values may be components
+     */
+    public Component render(Object... placeholders) {
+        if (dynamic) {
+            return Chat.parse(Chat.replacePlaceholders(text, placeholders));
+        }
+        return fill(component, placeholders);
+    }
+
+    /**
+     * Fills in the placeholders, then any PlaceholderAPI placeholders for the player.
+     *
+     * @param placeholders Pairs of placeholder and value, values may be components
+     */
+    public Component render(Player player, Object... placeholders) {
+        if (dynamic) {
+            String processed = Chat.replacePlaceholders(text, placeholders);
+            return Chat.parse(PlaceholderFactory.setPlaceholders(player, processed));
+        }
+
+        Component result = fill(component, placeholders);
+        for (String slot : slots) {
+            String resolved = PlaceholderFactory.setPlaceholders(player, slot);
+            if (!slot.equals(resolved)) {
+                result = result.replaceText(builder -> builder.matchLiteral(slot).replacement(resolved));
+            }
+        }
+        return result;
+    }
+
+    public void playSounds(Player player) {
+        for (SoundCue cue : sounds) {
+            player.playSound(player.getLocation(), cue.sound(), cue.volume(), cue.pitch());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private Component fill(Component component, Object... placeholders) {
+        if (placeholders == null) return component;
+
+        Component result = component;
+        for (int i = 0; i < placeholders.length - 1; i += 2) {
+            String key = String.valueOf(placeholders[i]);
+            if (!text.contains(key)) continue;
+
+            Object value = placeholders[i + 1];
+            Component replacement = value instanceof Component valueComponent
+                    ? valueComponent
+                    : Component.text(String.valueOf(value));
+            result = result.replaceText(builder -> builder.matchLiteral(key).replacement(replacement));
+        }
+        return result;
+    }
+
+    private static List<SoundCue> parseSounds(String source) {
+        List<SoundCue> sounds = new ArrayList<>();
+        Matcher soundMatcher = Chat.soundPattern.matcher(source);
+        while (soundMatcher.find()) {
+            try {
+                sounds.add(new SoundCue(
+                        Sound.valueOf(soundMatcher.group(1)),
+                        Float.parseFloat(soundMatcher.group(2)),
+                        Float.parseFloat(soundMatcher.group(3))
+                ));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        return List.copyOf(sounds);
+    }
+
+    private record SoundCue(Sound sound, float volume, float pitch) {
+    }
+}
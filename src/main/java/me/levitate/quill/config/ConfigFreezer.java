@@ -0,0 +1,137 @@
+package me.levitate.quill.config;
+
+import me.levitate.quill.config.exception.ConfigurationException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Makes a loaded snapshot config read-only, together with the objects nested in it.
+ * <p>
+ * Lists, sets and maps are replaced with unmodifiable copies, including those held by final fields.
+ * Only classes from the config's own class loader are walked, so library types such as items are left alone.
+ * Classes that would stay writable are rejected: public setters, public non-final fields, arrays,
+ * and record components holding a modifiable collection. Each class is checked once, its fields are cached.
+ * </p>
+ */
+final class ConfigFreezer {
+    private static final ClassValue<List<Field>> FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            return freezableFields(type);
+        }
+    };
+
+    private final ClassLoader classLoader;
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private ConfigFreezer(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    static void freeze(Object config) {
+        new ConfigFreezer(config.getClass().getClassLoader()).freezeObject(config);
+    }
+
+    private void freezeObject(Object object) {
+        if (object == null || object.getClass().getClassLoader() != classLoader || !visited.add(object)) return;
+
+        Class<?> type = object.getClass();
+        for (Field field : FIELDS.get(type)) {
+            try {
+                Object value = field.get(object);
+                Object frozen = freezeValue(value);
+                if (frozen == value) continue;
+
+                if (type.isRecord()) {
+                    throw new ConfigurationException("Record component " + field.getName() + " of " + type.getName()
+                            + " holds a modifiable collection, copy it with List.copyOf, Set.copyOf or Map.copyOf in the constructor");
+                }
+                field.set(object, frozen);
+            } catch (ReflectiveOperationException e) {
+                throw new ConfigurationException("Failed to freeze field " + field.getName() + " of " + type.getName(), e);
+            }
+        }
+    }
+
+    private Object freezeValue(Object value) {
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            boolean changed = !isUnmodifiable(list);
+            for (Object element : list) {
+                Object frozen = freezeValue(element);
+                changed |= frozen != element;
+                copy.add(frozen);
+            }
+            return changed ? Collections.unmodifiableList(copy) : value;
+        }
+        if (value instanceof Set<?> set) {
+            Set<Object> copy = new LinkedHashSet<>();
+            boolean changed = !isUnmodifiable(set);
+            for (Object element : set) {
+                Object frozen = freezeValue(element);
+                changed |= frozen != element;
+                copy.add(frozen);
+            }
+            return changed ? Collections.unmodifiableSet(copy) : value;
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            boolean changed = !isUnmodifiable(map);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                Object frozen = freezeValue(entry.getValue());
+                changed |= frozen != entry.getValue();
+                copy.put(entry.getKey(), frozen);
+            }
+            return changed ? Collections.unmodifiableMap(copy) : value;
+        }
+
+        freezeObject(value);
+        return value;
+    }
+
+    private static boolean isUnmodifiable(Object collection) {
+        String name = collection.getClass().getName();
+        return name.startsWith("java.util.ImmutableCollections$")
+                || name.startsWith("java.util.Collections$Unmodifiable")
+                || name.startsWith("java.util.Collections$Empty")
+                || name.startsWith("java.util.Collections$Singleton");
+    }
+
+    /**
+     * Checks that a class can't be modified from the outside, and gets its instance fields, made accessible.
+     */
+    private static List<Field> freezableFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                if (Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers) && method.getParameterCount() == 1
+                        && method.getName().length() > 3 && method.getName().startsWith("set")) {
+                    throw new ConfigurationException("Snapshot configs must be read-only, but " + current.getName()
+                            + " declares the setter " + method.getName());
+                }
+            }
+
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers)) continue;
+
+                if (Modifier.isPublic(modifiers) && !Modifier.isFinal(modifiers)) {
+                    throw new ConfigurationException("Snapshot configs must be read-only, but " + current.getName()
+                            + " declares the public field " + field.getName());
+                }
+                if (field.getType().isArray()) {
+                    throw new ConfigurationException("Snapshot configs can't hold arrays, use a List for field "
+                            + field.getName() + " of " + current.getName());
+                }
+
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        return List.copyOf(fields);
+    }
+}
@@ -0,0 +1,44 @@
+package me.levitate.quill.config;
+
+/**
+ * Holds the current instance of a config, replaced atomically on every reload.
+ * <p>
+ * Reading the holder never locks. A task that reads {@link #get()} once and keeps the instance sees one consistent
+ * version of the config, even if a reload happens meanwhile. Configs with {@code @Config(snapshot = true)}
+ * are frozen before they are published, so they can be shared between threads safely.
+ * </p>
+ *
+ * @param <T> Config type
+ */
+public final class ConfigHolder<T> {
+    private volatile Snapshot<T> snapshot;
+
+    ConfigHolder(T config) {
+        this.snapshot = new Snapshot<>(config, 1);
+    }
+
+    /**
+     * Gets the current instance of the config.
+     */
+    public T get() {
+        return snapshot.config();
+    }
+
+    /**
+     * Gets the current instance together with its version, which increases with every reload.
+     */
+    public Snapshot<T> getSnapshot() {
+        return snapshot;
+    }
+
+    public long getVersion() {
+        return snapshot.version();
+    }
+
+    synchronized void set(T config) {
+        snapshot = new Snapshot<>(config, snapshot.version() + 1);
+    }
+
+    public record Snapshot<T>(T config, long version) {
+    }
+}
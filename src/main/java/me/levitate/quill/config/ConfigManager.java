@@ -1,40 +1,71 @@
 package me.levitate.quill.config;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
 import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+import me.levitate.quill.chat.MessageTemplate;
 import me.levitate.quill.config.annotation.Config;
+import me.levitate.quill.config.binder.ConfigBinder;
+import me.levitate.quill.config.binder.ConfigBinders;
 import me.levitate.quill.config.comment.CommentedConfigurationSerializer;
 import me.levitate.quill.config.exception.ConfigurationException;
-import me.levitate.quill.config.reload.ConfigReloadListener;
+import me.levitate.quill.config.reload.ConfigChangeListener;
+import me.levitate.quill.config.reload.ConfigDiff;
 import me.levitate.quill.config.serializer.ConfigurationDeserializer;
 import me.levitate.quill.config.serializer.ConfigurationSerializer;
 import me.levitate.quill.injection.annotation.Inject;
 import me.levitate.quill.injection.annotation.Module;
 import me.levitate.quill.injection.annotation.PostConstruct;
+import me.levitate.quill.injection.annotation.PreDestroy;
 import me.levitate.quill.item.ItemSerializer;
 import me.levitate.quill.logger.QuillLogger;
+import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.logging.Level;
+import java.util.zip.CRC32;
 
 @Module
 @SuppressWarnings("unused")
 public class ConfigManager {
-    private final Map<Class<?>, CommentedConfigurationSerializer> commentSerializers = new HashMap<>();
-    private final Map<Class<?>, List<Consumer<?>>> reloadListeners = new ConcurrentHashMap<>();
+    private final Map<Class<?>, CommentedConfigurationSerializer> commentSerializers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, List<ConfigChangeListener<?>>> reloadListeners = new ConcurrentHashMap<>();
+    // Checksums of the contents we last wrote, so the watcher ignores our own writes
+    private final Map<File, Long> writtenChecksums = new ConcurrentHashMap<>();
+    // Readers and writers per config class, dropped when serializers change
+    private final Map<Class<?>, ConfigCodec> codecs = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ConfigHolder<?>> holders = new ConcurrentHashMap<>();
+    private ConfigWatcher watcher;
+    private boolean parseCache = true;
 
     private Map<Class<?>, Object> configInstances;
     private ObjectMapper mapper;
+    private ObjectMapper cacheMapper;
     private SimpleModule serializerModule;
 
     @Inject
@@ -54,13 +85,24 @@ public class ConfigManager {
                 .enable(YAMLGenerator.Feature.LITERAL_BLOCK_STYLE)
                 .build();
 
+        // Comments are only written to files, everything else serializes every field
+        FilterProvider defaultFilter = new SimpleFilterProvider()
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+
         this.mapper = new ObjectMapper(yamlFactory)
                 .enable(SerializationFeature.INDENT_OUTPUT)
-                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setFilterProvider(defaultFilter);
+
+        // Parsed configs are cached as JSON, which parses far faster than YAML
+        this.cacheMapper = new ObjectMapper()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setFilterProvider(defaultFilter);
 
         this.serializerModule = new SimpleModule();
         registerBukkitSerializers();
         mapper.registerModule(serializerModule);
+        cacheMapper.registerModule(serializerModule);
     }
 
     @SuppressWarnings("unchecked")
@@ -68,30 +110,133 @@ public class ConfigManager {
         return (T) configInstances.computeIfAbsent(configClass, this::loadConfig);
     }
 
+    /**
+     * Gets a holder that always points at the current instance of the config, for readers on any thread.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ConfigHolder<T> getHolder(Class<T> configClass) {
+        return (ConfigHolder<T>) holders.computeIfAbsent(configClass, type -> new ConfigHolder<>(getConfig(configClass)));
+    }
+
     public void reloadAll() {
         Set<Class<?>> configClasses = new HashSet<>(configInstances.keySet());
         configClasses.forEach(this::reloadConfig);
-        notifyReloadListeners();
     }
 
+    /**
+     * Reloads a config from its file. Its reload listeners are only notified if a value changed.
+     */
     public void reloadConfig(Class<?> configClass) {
-        configInstances.put(configClass, loadConfig(configClass));
-        notifyReloadListeners();
+        Object previous = configInstances.get(configClass);
+        Object loaded = loadConfig(configClass);
+        Set<String> changedPaths = changedPaths(configClass, previous, loaded);
+
+        publish(configClass, loaded);
+        notifyReloadListeners(configClass, changedPaths);
     }
 
+    /**
+     * Reloads a config like {@link #reloadConfig}, but reads and parses it, including its message templates,
+     * off the main thread. The new instance is swapped in and the listeners are notified on the main thread.
+     *
+     * @return The paths of the changed values, once the new instance is in place
+     */
+    public CompletableFuture<Set<String>> reloadConfigAsync(Class<?> configClass) {
+        Executor async = task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+        Executor sync = task -> Bukkit.getScheduler().runTask(plugin, task);
+
+        return CompletableFuture.supplyAsync(() -> loadConfig(configClass), async).thenApplyAsync(loaded -> {
+            Set<String> changedPaths = changedPaths(configClass, configInstances.get(configClass), loaded);
+            publish(configClass, loaded);
+            notifyReloadListeners(configClass, changedPaths);
+            return changedPaths;
+        }, sync);
+    }
+
+    /**
+     * Reloads every config off the main thread, see {@link #reloadConfigAsync}.
+     */
+    public CompletableFuture<Void> reloadAllAsync() {
+        return CompletableFuture.allOf(new HashSet<>(configInstances.keySet()).stream()
+                .map(this::reloadConfigAsync)
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Reloads configs when their files change on disk, for example when edited by hand.
+     * Changes are debounced, parsed on a background thread and swapped in on the main thread,
+     * and only the reload listeners of the changed config are notified.
+     * @param debounceMillis How long a file must stay unchanged before it is reloaded, in milliseconds
+     */
+    public synchronized void enableHotReload(long debounceMillis) {
+        if (watcher != null) return;
+
+        try {
+            watcher = new ConfigWatcher(debounceMillis, this::reloadChangedFile, plugin.getLogger());
+            for (Class<?> configClass : configInstances.keySet()) {
+                watcher.watch(getConfigFile(configClass).toPath(), configClass);
+            }
+        } catch (IOException e) {
+            disableHotReload();
+            throw new ConfigurationException("Failed to watch configuration files", e);
+        }
+    }
+
+    /**
+     * Reloads configs when their files change on disk, with a debounce of half a second.
+     */
+    public void enableHotReload() {
+        enableHotReload(500);
+    }
+
+    @PreDestroy
+    public synchronized void disableHotReload() {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Adds a listener that is notified when a reload changed the config.
+     */
     public <T> void addReloadListener(Class<T> configClass, Consumer<T> listener) {
-        reloadListeners.computeIfAbsent(configClass, k -> new ArrayList<>())
+        addChangeListener(configClass, (config, changedPaths) -> listener.accept(config));
+    }
+
+    /**
+     * Adds a listener that is notified when a reload changed the config, with the paths of the changed values.
+     */
+    public <T> void addChangeListener(Class<T> configClass, ConfigChangeListener<T> listener) {
+        reloadListeners.computeIfAbsent(configClass, k -> new CopyOnWriteArrayList<>())
                 .add(listener);
     }
 
+    /**
+     * Sets whether parsed configs are cached in the data folder, keyed by the hash of their file.
+     * An unchanged config is then read from the cache on the next start instead of being parsed as YAML.
+     * Enabled by default.
+     */
+    public void setParseCache(boolean parseCache) {
+        this.parseCache = parseCache;
+    }
+
     public <T> void registerSerializer(Class<T> type, ConfigurationSerializer<T> serializer) {
         serializerModule.addSerializer(type, serializer);
-        mapper.registerModule(serializerModule);
+        registerModule();
     }
 
     public <T> void registerDeserializer(Class<T> type, ConfigurationDeserializer<T> deserializer) {
         serializerModule.addDeserializer(type, deserializer);
+        registerModule();
+    }
+
+    private void registerModule() {
         mapper.registerModule(serializerModule);
+        if (cacheMapper != null) {
+            cacheMapper.registerModule(serializerModule);
+        }
+        codecs.clear();
     }
 
     @SuppressWarnings("unchecked")
@@ -105,6 +250,14 @@ public class ConfigManager {
                 new ConfigurationDeserializer<>(org.bukkit.inventory.ItemStack.class,
                         map -> org.bukkit.inventory.ItemStack.deserialize((Map<String, Object>) map)));
 
+        // Messages are compiled once, when the config loads
+        registerSerializer(MessageTemplate.class,
+                new ConfigurationSerializer<>(MessageTemplate.class, MessageTemplate::getSource));
+
+        registerDeserializer(MessageTemplate.class,
+                new ConfigurationDeserializer<>(MessageTemplate.class,
+                        value -> MessageTemplate.compile(value == null ? null : String.valueOf(value))));
+
         // Location serializer
         registerSerializer(org.bukkit.Location.class,
                 new ConfigurationSerializer<>(org.bukkit.Location.class,
@@ -135,38 +288,123 @@ public class ConfigManager {
                         }));
     }
 
+    /**
+     * Runs on the watcher thread once a watched file stopped changing.
+     */
+    private void reloadChangedFile(Class<?> configClass, Path file) {
+        try {
+            Long written = writtenChecksums.get(file.toFile());
+            if (written != null && written == checksum(Files.readAllBytes(file))) return;
+
+            Object loaded = loadConfig(configClass);
+            Set<String> changedPaths = changedPaths(configClass, configInstances.get(configClass), loaded);
+            if (changedPaths.isEmpty()) return;
+
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                publish(configClass, loaded);
+                notifyReloadListeners(configClass, changedPaths);
+                logger.info("Reloaded configuration: " + file.getFileName());
+            });
+        } catch (NoSuchFileException e) {
+            // The file was deleted or is being replaced, the next event reloads it
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to reload configuration: " + file.getFileName(), e);
+        }
+    }
+
+    /**
+     * Replaces the instance of a config, and updates its holder.
+     */
     @SuppressWarnings("unchecked")
-    private void notifyReloadListeners() {
-        configInstances.forEach((configClass, instance) -> {
-            List<Consumer<?>> listeners = reloadListeners.get(configClass);
-            if (listeners != null) {
-                listeners.forEach(listener ->
-                        ((Consumer<Object>) listener).accept(instance)
-                );
-            }
+    private void publish(Class<?> configClass, Object instance) {
+        configInstances.put(configClass, instance);
+        holders.computeIfPresent(configClass, (type, holder) -> {
+            ((ConfigHolder<Object>) holder).set(instance);
+            return holder;
         });
     }
 
-    private <T> T loadConfig(Class<T> configClass) {
+    /**
+     * Compares the values of two instances of a config. Without a previous instance, every value counts as changed.
+     */
+    private Set<String> changedPaths(Class<?> configClass, Object previous, Object current) {
+        ObjectMapper configMapper = getCodec(configClass).mapper();
+        JsonNode previousTree = previous == null ? configMapper.createObjectNode() : configMapper.valueToTree(previous);
+        return ConfigDiff.changedPaths(previousTree, configMapper.valueToTree(current));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void notifyReloadListeners(Class<?> configClass, Set<String> changedPaths) {
+        if (changedPaths.isEmpty()) return;
+
+        List<ConfigChangeListener<?>> listeners = reloadListeners.get(configClass);
+        if (listeners == null) return;
+
+        Object instance = configInstances.get(configClass);
+        Set<String> paths = Collections.unmodifiableSet(changedPaths);
+        listeners.forEach(listener -> ((ConfigChangeListener<Object>) listener).onConfigChange(instance, paths));
+    }
+
+    private File getConfigFile(Class<?> configClass) {
         Config configAnnotation = configClass.getAnnotation(Config.class);
         if (configAnnotation == null) {
             throw new ConfigurationException("Class " + configClass.getName() + " is not annotated with @Config");
         }
+        return new File(plugin.getDataFolder(), configAnnotation.value());
+    }
+
+    private <T> T loadConfig(Class<T> configClass) {
+        T instance = readConfig(configClass);
+
+        // Snapshots are frozen before they are published
+        if (configClass.getAnnotation(Config.class).snapshot()) {
+            ConfigFreezer.freeze(instance);
+        }
+        return instance;
+    }
 
-        File configFile = new File(plugin.getDataFolder(), configAnnotation.value());
+    private <T> T readConfig(Class<T> configClass) {
+        File configFile = getConfigFile(configClass);
 
         try {
-            ObjectMapper configMapper = getMapperForConfig(configClass);
-            T instance = configClass.getDeclaredConstructor().newInstance();
+            ConfigCodec codec = getCodec(configClass);
 
             if (!configFile.exists()) {
-                saveDefaultConfig(configFile, instance, configMapper);
+                T instance = createInstance(configClass, codec);
+                byte[] contents = saveDefaultConfig(configFile, instance, codec);
+                writeCache(configFile, cacheKey(codec, contents), instance, codec);
+                watchIfEnabled(configFile, configClass);
                 return instance;
             }
 
-            T loadedInstance = configMapper.readValue(configFile, configClass);
-            updateMissingValues(loadedInstance, instance);
-            saveConfig(configFile, loadedInstance, configMapper);
+            byte[] contents = Files.readAllBytes(configFile.toPath());
+            String cacheKey = cacheKey(codec, contents);
+            T cachedInstance = readCache(configFile, cacheKey, codec);
+            if (cachedInstance != null) {
+                watchIfEnabled(configFile, configClass);
+                return cachedInstance;
+            }
+
+            T instance = createInstance(configClass, codec);
+            JsonNode tree = codec.reader().readTree(contents);
+            T loadedInstance;
+            boolean changed;
+            if (tree == null || !tree.isObject()) {
+                // An empty file is filled with the defaults
+                loadedInstance = instance;
+                changed = true;
+            } else {
+                loadedInstance = codec.reader().readValue(tree);
+                changed = mergeDefaults(loadedInstance, instance, codec) | hasMissingProperties(tree, codec);
+            }
+
+            // The file is only rewritten when defaults were added to it
+            if (changed) {
+                contents = saveConfig(configFile, loadedInstance, codec);
+                cacheKey = cacheKey(codec, contents);
+            }
+            writeCache(configFile, cacheKey, loadedInstance, codec);
+            watchIfEnabled(configFile, configClass);
             return loadedInstance;
 
         } catch (Exception e) {
@@ -175,7 +413,29 @@ public class ConfigManager {
         }
     }
 
-    private <T> void updateMissingValues(T loadedInstance, T defaultInstance) {
+    @SuppressWarnings("unchecked")
+    private <T> T createInstance(Class<T> configClass, ConfigCodec codec) throws ReflectiveOperationException {
+        if (codec.binder() != null) {
+            return ((ConfigBinder<T>) codec.binder()).create();
+        }
+        return configClass.getDeclaredConstructor().newInstance();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> boolean mergeDefaults(T loadedInstance, T defaultInstance, ConfigCodec codec) {
+        if (codec.binder() != null) {
+            return ((ConfigBinder<T>) codec.binder()).mergeDefaults(loadedInstance, defaultInstance);
+        }
+        return updateMissingValues(loadedInstance, defaultInstance);
+    }
+
+    /**
+     * Sets the fields of the loaded instance that are null to their default values, for configs without a binder.
+     *
+     * @return Whether any field was set
+     */
+    private <T> boolean updateMissingValues(T loadedInstance, T defaultInstance) {
+        boolean updated = false;
         try {
             for (Field field : loadedInstance.getClass().getDeclaredFields()) {
                 field.setAccessible(true);
@@ -183,33 +443,113 @@ public class ConfigManager {
                 if (loadedValue == null) {
                     Object defaultValue = field.get(defaultInstance);
                     field.set(loadedInstance, defaultValue);
+                    updated |= defaultValue != null;
                 }
             }
         } catch (Exception e) {
             throw new ConfigurationException("Failed to update missing values", e);
         }
+        return updated;
+    }
+
+    private boolean hasMissingProperties(JsonNode tree, ConfigCodec codec) {
+        for (String property : codec.properties()) {
+            if (!tree.has(property)) return true;
+        }
+        return false;
     }
 
     @SuppressWarnings("ResultOfMethodCallIgnored")
-    private void saveDefaultConfig(File file, Object instance, ObjectMapper configMapper) {
+    private byte[] saveDefaultConfig(File file, Object instance, ConfigCodec codec) {
         try {
             if (!file.getParentFile().exists()) {
                 file.getParentFile().mkdirs();
             }
-            saveConfig(file, instance, configMapper);
+            return saveConfig(file, instance, codec);
         } catch (Exception e) {
             throw new ConfigurationException("Failed to save default configuration", e);
         }
     }
 
-    private void saveConfig(File file, Object instance, ObjectMapper configMapper) {
+    private synchronized void watchIfEnabled(File file, Class<?> configClass) throws IOException {
+        if (watcher != null) {
+            watcher.watch(file.toPath(), configClass);
+        }
+    }
+
+    private byte[] saveConfig(File file, Object instance, ConfigCodec codec) {
         try {
-            configMapper.writeValue(file, instance);
+            byte[] contents = codec.writer().writeValueAsBytes(instance);
+            writtenChecksums.put(file, checksum(contents));
+            Files.write(file.toPath(), contents);
+            return contents;
         } catch (Exception e) {
             throw new ConfigurationException("Failed to save configuration", e);
         }
     }
 
+    /**
+     * Reads a config from the parse cache.
+     *
+     * @return The cached instance, or null if caching is disabled or the cache is missing, stale or unreadable
+     */
+    private <T> T readCache(File configFile, String cacheKey, ConfigCodec codec) {
+        if (!parseCache) return null;
+
+        File cacheFile = getCacheFile(configFile);
+        if (!cacheFile.exists()) return null;
+
+        try {
+            JsonNode cached = cacheMapper.readTree(cacheFile);
+            if (cached == null || !cacheKey.equals(cached.path("key").asText())) return null;
+            return codec.cacheReader().readValue(cached.get("config"));
+        } catch (Exception e) {
+            // A broken cache is rebuilt from the file
+            logger.log(Level.FINE, "Ignoring unreadable config cache: " + cacheFile.getName(), e);
+            return null;
+        }
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private void writeCache(File configFile, String cacheKey, Object instance, ConfigCodec codec) {
+        if (!parseCache) return;
+
+        File cacheFile = getCacheFile(configFile);
+        try {
+            ObjectNode cached = cacheMapper.createObjectNode();
+            cached.put("key", cacheKey);
+            cached.set("config", codec.cacheMapper().valueToTree(instance));
+
+            cacheFile.getParentFile().mkdirs();
+            Files.write(cacheFile.toPath(), cacheMapper.writeValueAsBytes(cached));
+        } catch (Exception e) {
+            // The cache only speeds up loading, the config itself is fine
+            logger.log(Level.WARNING, "Failed to write config cache: " + cacheFile.getName(), e);
+        }
+    }
+
+    private File getCacheFile(File configFile) {
+        Path dataFolder = plugin.getDataFolder().toPath().toAbsolutePath();
+        Path relative = dataFolder.relativize(configFile.toPath().toAbsolutePath());
+        return new File(new File(plugin.getDataFolder(), ".cache/config"), relative + ".json");
+    }
+
+    /**
+     * Keys the cache by the file's contents and the config's properties, so a file edit or a new field invalidates it.
+     */
+    private static String cacheKey(ConfigCodec codec, byte[] contents) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(contents);
+        digest.update(String.join(",", codec.properties()).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static long checksum(byte[] contents) {
+        CRC32 crc = new CRC32();
+        crc.update(contents);
+        return crc.getValue();
+    }
+
     private void configureCommentSerializer(Class<?> configClass) {
         CommentedConfigurationSerializer serializer = new CommentedConfigurationSerializer(configClass);
         commentSerializers.put(configClass, serializer);
@@ -219,15 +559,55 @@ public class ConfigManager {
         mapper.setFilterProvider(filterProvider);
     }
 
-    private ObjectMapper getMapperForConfig(Class<?> configClass) {
-        CommentedConfigurationSerializer serializer = commentSerializers.computeIfAbsent(
-                configClass,
-                CommentedConfigurationSerializer::new
-        );
+    private ConfigCodec getCodec(Class<?> configClass) {
+        return codecs.computeIfAbsent(configClass, type -> {
+            // Generated binders replace Jackson's reflective binding, and write the comments themselves.
+            // They are registered on copies of the mappers, so the shared ones are never changed while in use.
+            ConfigBinder<?> binder = ConfigBinders.find(type);
+            if (binder != null) {
+                SimpleModule binderModule = new SimpleModule();
+                ConfigBinders.register(binderModule, binder);
+                ObjectMapper binderMapper = mapper.copy().registerModule(binderModule);
+                ObjectMapper binderCacheMapper = cacheMapper.copy().registerModule(binderModule);
+
+                return new ConfigCodec(
+                        binderMapper,
+                        binderCacheMapper,
+                        binderMapper.readerFor(type),
+                        binderMapper.writer(),
+                        binderCacheMapper.readerFor(type),
+                        binder.properties(),
+                        binder
+                );
+            }
 
-        FilterProvider filterProvider = new SimpleFilterProvider()
-                .addFilter("commentFilter", serializer);
+            CommentedConfigurationSerializer serializer = commentSerializers.computeIfAbsent(
+                    type,
+                    CommentedConfigurationSerializer::new
+            );
+
+            FilterProvider filterProvider = new SimpleFilterProvider()
+                    .addFilter("commentFilter", serializer);
+
+            List<String> properties = mapper.getSerializationConfig()
+                    .introspect(mapper.constructType(type))
+                    .findProperties().stream()
+                    .map(BeanPropertyDefinition::getName)
+                    .toList();
+
+            return new ConfigCodec(
+                    mapper,
+                    cacheMapper,
+                    mapper.readerFor(type),
+                    mapper.writer(filterProvider),
+                    cacheMapper.readerFor(type),
+                    properties,
+                    null
+            );
+        });
+    }
 
-        return mapper.copy().setFilterProvider(filterProvider);
+    private record ConfigCodec(ObjectMapper mapper, ObjectMapper cacheMapper, ObjectReader reader, ObjectWriter writer,
+                               ObjectReader cacheReader, List<String> properties, ConfigBinder<?> binder) {
     }
 }
\ No newline at end of file
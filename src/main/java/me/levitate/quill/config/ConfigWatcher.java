@@ -0,0 +1,109 @@
+package me.levitate.quill.config;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches the files of loaded configs and hands changed ones to a reload action on a background thread.
+ * Rapid successive events for a file, such as an editor writing a temporary file and renaming it, are debounced
+ * into a single reload.
+ */
+class ConfigWatcher implements AutoCloseable {
+    private final WatchService watchService;
+    private final Map<Path, WatchKey> directories = new ConcurrentHashMap<>();
+    private final Map<Path, Class<?>> files = new ConcurrentHashMap<>();
+    private final Map<Path, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Quill-ConfigReload");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long debounceMillis;
+    private final BiConsumer<Class<?>, Path> reloadAction;
+    private final Logger logger;
+    private final Thread thread;
+
+    ConfigWatcher(long debounceMillis, BiConsumer<Class<?>, Path> reloadAction, Logger logger) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.debounceMillis = debounceMillis;
+        this.reloadAction = reloadAction;
+        this.logger = logger;
+        this.thread = new Thread(this::run, "Quill-ConfigWatcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Starts watching the file of a config. Watching a file again replaces its config class.
+     */
+    void watch(Path file, Class<?> configClass) throws IOException {
+        Path normalized = file.toAbsolutePath().normalize();
+        Path directory = normalized.getParent();
+        files.put(normalized, configClass);
+
+        if (!directories.containsKey(directory)) {
+            directories.put(directory, directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY));
+        }
+    }
+
+    @Override
+    public void close() {
+        thread.interrupt();
+        executor.shutdownNow();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close config watch service", e);
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    // Events were lost, so every config in the directory is checked
+                    files.forEach((file, configClass) -> {
+                        if (file.getParent().equals(directory)) schedule(file, configClass);
+                    });
+                    continue;
+                }
+
+                Path file = directory.resolve((Path) event.context());
+                Class<?> configClass = files.get(file);
+                if (configClass != null) {
+                    schedule(file, configClass);
+                }
+            }
+
+            if (!key.reset()) {
+                directories.remove(directory);
+            }
+        }
+    }
+
+    private void schedule(Path file, Class<?> configClass) {
+        pending.compute(file, (path, previous) -> {
+            if (previous != null) previous.cancel(false);
+            try {
+                return executor.schedule(() -> reloadAction.accept(configClass, path), debounceMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                return null;
+            }
+        });
+    }
+}
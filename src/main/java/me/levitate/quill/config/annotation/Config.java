@@ -12,4 +12,17 @@ import java.lang.annotation.Target;
 @JsonFilter("commentFilter")
 public @interface Config {
     String value();
+
+    /**
+     * Publishes the config as a snapshot: its collections are made unmodifiable before any reader can see it,
+     * so it can be read from any thread through a {@link me.levitate.quill.config.ConfigHolder}.
+     * Snapshot configs and their nested classes must be read-only, loading fails if they declare public setters,
+     * public non-final fields or arrays.
+     */
+    boolean snapshot() default false;
+
+    /**
+     * Generates a binder for the config with the Quill processor, which reads, writes and merges it without reflection.
+     */
+    boolean generateBinder() default false;
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package me.levitate.quill.config.binder;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Creates, reads and writes the properties of a config class without reflection.
+ * <p>
+ * Binders are generated by the Quill processor for {@code @Config(generateBinder = true)} classes,
+ * as {@code <Name>ConfigBinder} next to the class, and picked up by the {@link me.levitate.quill.config.ConfigManager}.
+ * Properties are addressed by their index in {@link #properties()}. Quill drives Jackson itself, so generated binders
+ * only use plain Java types and keep working when Quill's Jackson is relocated.
+ * Configs without a binder are bound by Jackson reflectively.
+ * </p>
+ *
+ * @param <T> Config type
+ */
+public interface ConfigBinder<T> {
+    Class<T> type();
+
+    /**
+     * Creates an instance holding the default values.
+     */
+    T create();
+
+    /**
+     * The names of the config's properties, in file order.
+     */
+    List<String> properties();
+
+    /**
+     * The declared type of each property, used to read its value.
+     */
+    List<Type> propertyTypes();
+
+    /**
+     * The {@code @Comment} of each property, or null where it has none.
+     */
+    List<String> comments();
+
+    Object get(T config, int property);
+
+    /**
+     * Sets a property. Null leaves primitive properties at their current value.
+     */
+    void set(T config, int property, Object value);
+
+    /**
+     * Sets the properties of the loaded config that are null to their default values.
+     *
+     * @return Whether any property was set
+     */
+    boolean mergeDefaults(T loaded, T defaults);
+}
@@ -0,0 +1,145 @@
+package me.levitate.quill.config.binder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+import me.levitate.quill.config.annotation.Config;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds generated {@link ConfigBinder}s and binds them to Jackson.
+ */
+public final class ConfigBinders {
+    private ConfigBinders() {
+    }
+
+    /**
+     * Finds the generated binder of a config class.
+     *
+     * @return The binder, or null if the class doesn't opt in with {@code @Config(generateBinder = true)}
+     * @throws IllegalStateException If the class opts in but its binder is missing
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ConfigBinder<T> find(Class<T> configClass) {
+        Config config = configClass.getAnnotation(Config.class);
+        if (config == null || !config.generateBinder()) return null;
+
+        String packageName = configClass.getPackageName();
+        String simpleBinaryName = packageName.isEmpty()
+                ? configClass.getName()
+                : configClass.getName().substring(packageName.length() + 1);
+        String binderName = (packageName.isEmpty() ? "" : packageName + ".") + simpleBinaryName.replace('$', '_') + "ConfigBinder";
+
+        try {
+            Class<?> binderClass = Class.forName(binderName, true, configClass.getClassLoader());
+            return (ConfigBinder<T>) binderClass.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Missing config binder " + binderName + ", is the Quill processor enabled?", e);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("Failed to create config binder: " + binderName, e);
+        }
+    }
+
+    /**
+     * Registers the binder as the serializer and deserializer of its config class.
+     */
+    public static <T> void register(SimpleModule module, ConfigBinder<T> binder) {
+        module.addSerializer(binder.type(), new BinderSerializer<>(binder));
+        module.addDeserializer(binder.type(), new BinderDeserializer<>(binder));
+    }
+
+    private static class BinderSerializer<T> extends StdSerializer<T> {
+        private final ConfigBinder<T> binder;
+        private final List<String> properties;
+        private final List<String> comments;
+
+        BinderSerializer(ConfigBinder<T> binder) {
+            super(binder.type());
+            this.binder = binder;
+            this.properties = binder.properties();
+            this.comments = binder.comments();
+        }
+
+        @Override
+        public void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(value);
+            for (int i = 0; i < properties.size(); i++) {
+                String comment = comments.get(i);
+                if (comment != null && gen instanceof YAMLGenerator yamlGenerator) {
+                    // Ensure we're at the start of a new line
+                    yamlGenerator.writeRaw("\n");
+                    for (String line : comment.split("\n")) {
+                        yamlGenerator.writeRaw("# " + line + "\n");
+                    }
+                }
+
+                gen.writeFieldName(properties.get(i));
+                provider.defaultSerializeValue(binder.get(value, i), gen);
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    private static class BinderDeserializer<T> extends StdDeserializer<T> {
+        private final ConfigBinder<T> binder;
+        private final Map<String, Integer> indexes = new HashMap<>();
+        // Resolved on first use, the same types are resolved by every thread so races are harmless
+        private volatile JavaType[] types;
+
+        BinderDeserializer(ConfigBinder<T> binder) {
+            super(binder.type());
+            this.binder = binder;
+
+            List<String> properties = binder.properties();
+            for (int i = 0; i < properties.size(); i++) {
+                indexes.put(properties.get(i), i);
+            }
+        }
+
+        @Override
+        public T deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JavaType[] resolved = resolveTypes(ctxt);
+            T value = binder.create();
+
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = p.nextToken();
+            }
+
+            for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                Integer index = indexes.get(p.currentName());
+                p.nextToken();
+                if (index == null) {
+                    p.skipChildren();
+                    continue;
+                }
+
+                Object read = p.currentToken() == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, resolved[index]);
+                binder.set(value, index, read);
+            }
+            return value;
+        }
+
+        private JavaType[] resolveTypes(DeserializationContext ctxt) {
+            JavaType[] resolved = types;
+            if (resolved == null) {
+                resolved = binder.propertyTypes().stream()
+                        .map(type -> ctxt.getTypeFactory().constructType(type))
+                        .toArray(JavaType[]::new);
+                types = resolved;
+            }
+            return resolved;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package me.levitate.quill.config.binder;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+
+/**
+ * Builds generic {@link Type}s for generated binders, without depending on a JSON library.
+ */
+public final class ConfigTypes {
+    private static final Type[] NO_TYPES = new Type[0];
+
+    private ConfigTypes() {
+    }
+
+    public static ParameterizedType parameterized(Class<?> rawType, Type... arguments) {
+        return new Parameterized(rawType, arguments.clone());
+    }
+
+    public static GenericArrayType arrayOf(Type componentType) {
+        return new GenericArray(componentType);
+    }
+
+    public static WildcardType subtypeOf(Type bound) {
+        return new Wildcard(new Type[]{bound}, NO_TYPES);
+    }
+
+    public static WildcardType supertypeOf(Type bound) {
+        return new Wildcard(new Type[]{Object.class}, new Type[]{bound});
+    }
+
+    private record Parameterized(Class<?> rawType, Type[] arguments) implements ParameterizedType {
+        @Override
+        public Type[] getActualTypeArguments() {
+            return arguments.clone();
+        }
+
+        @Override
+        public Type getRawType() {
+            return rawType;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return rawType.getDeclaringClass();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ParameterizedType type && rawType.equals(type.getRawType())
+                    && Arrays.equals(arguments, type.getActualTypeArguments());
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(arguments) ^ rawType.hashCode();
+        }
+    }
+
+    private record GenericArray(Type componentType) implements GenericArrayType {
+        @Override
+        public Type getGenericComponentType() {
+            return componentType;
+        }
+    }
+
+    private record Wildcard(Type[] upperBounds, Type[] lowerBounds) implements WildcardType {
+        @Override
+        public Type[] getUpperBounds() {
+            return upperBounds.clone();
+        }
+
+        @Override
+        public Type[] getLowerBounds() {
+            return lowerBounds.clone();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof WildcardType type && Arrays.equals(upperBounds, type.getUpperBounds())
+                    && Arrays.equals(lowerBounds, type.getLowerBounds());
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(upperBounds) ^ Arrays.hashCode(lowerBounds);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package me.levitate.quill.config.reload;
+
+import java.util.Set;
+
+/**
+ * Notified when a reload changed a config.
+ *
+ * @param <T> Config type
+ */
+@FunctionalInterface
+public interface ConfigChangeListener<T> {
+    /**
+     * @param config The reloaded config
+     * @param changedPaths Dot-separated paths of the changed values, such as {@code messages.prefix}
+     */
+    void onConfigChange(T config, Set<String> changedPaths);
+}
@@ -0,0 +1,42 @@
+package me.levitate.quill.config.reload;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.*;
+
+/**
+ * Compares two configs, as Jackson trees, field by field.
+ */
+public final class ConfigDiff {
+    private ConfigDiff() {
+    }
+
+    /**
+     * Finds the paths whose values differ between two trees. Objects are compared field by field,
+     * any other values, including lists, are compared as a whole and reported by their own path.
+     *
+     * @return Dot-separated paths of the changed values, empty if the trees are equal
+     */
+    public static Set<String> changedPaths(JsonNode previous, JsonNode current) {
+        Set<String> changed = new LinkedHashSet<>();
+        compare("", previous, current, changed);
+        return changed;
+    }
+
+    private static void compare(String path, JsonNode previous, JsonNode current, Set<String> changed) {
+        if (previous == null || current == null || !previous.isObject() || !current.isObject()) {
+            if (!Objects.equals(previous, current)) {
+                changed.add(path);
+            }
+            return;
+        }
+
+        Set<String> fields = new LinkedHashSet<>();
+        previous.fieldNames().forEachRemaining(fields::add);
+        current.fieldNames().forEachRemaining(fields::add);
+
+        for (String field : fields) {
+            compare(path.isEmpty() ? field : path + "." + field, previous.get(field), current.get(field), changed);
+        }
+    }
+}
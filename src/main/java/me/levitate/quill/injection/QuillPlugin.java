@@ -8,6 +8,7 @@ import me.levitate.quill.injection.container.DependencyContainer;
 import me.levitate.quill.injection.exception.DependencyException;
 import me.levitate.quill.logger.QuillLogger;
 import me.levitate.quill.manager.CommandManager;
+import me.levitate.quill.storage.StorageLoader;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -54,12 +55,20 @@ public abstract class QuillPlugin extends JavaPlugin {
             // Store the logger
             logger = container.getModule(QuillLogger.class);
 
+            // Start loading data in the background, modules requiring it wait for it before they are constructed
+            StorageLoader storageLoader = container.getModule(StorageLoader.class);
+            registerStorages(storageLoader);
+            storageLoader.start();
+
             // Then discover and register other modules
             registerModules();
 
             // Register all the commands, this is done after to ensure all the modules have loaded.
             registerCommands(container.getModule(CommandManager.class));
 
+            // Make sure the rest of the data finished loading
+            storageLoader.awaitAll();
+
             onPluginEnable();
         } catch (Exception e) {
             getLogger().log(Level.SEVERE, "Failed to initialize plugin: " + e.getMessage(), e);
@@ -150,6 +159,14 @@ public abstract class QuillPlugin extends JavaPlugin {
     protected void onPluginEnable() {
     }
 
+    /**
+     * Registers the storages and configs to load in parallel before the plugin enables.
+     * Runs after the plugin's own dependencies are injected, but before the other modules are registered.
+     * @param storageLoader The loader to register them with
+     */
+    protected void registerStorages(StorageLoader storageLoader) {
+    }
+
     protected void onPluginDisable() {
     }
 
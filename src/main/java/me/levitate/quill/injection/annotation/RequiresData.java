@@ -0,0 +1,16 @@
+package me.levitate.quill.injection.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Delays the construction of a module until the named loads registered in the
+ * {@link me.levitate.quill.storage.StorageLoader} have completed.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface RequiresData {
+    String[] value();
+}
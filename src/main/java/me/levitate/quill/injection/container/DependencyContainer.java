@@ -9,9 +9,11 @@ import me.levitate.quill.injection.annotation.Inject;
 import me.levitate.quill.injection.annotation.Module;
 import me.levitate.quill.injection.annotation.PostConstruct;
 import me.levitate.quill.injection.annotation.PreDestroy;
+import me.levitate.quill.injection.annotation.RequiresData;
 import me.levitate.quill.injection.exception.DependencyException;
 import me.levitate.quill.logger.QuillLogger;
 import me.levitate.quill.manager.CommandManager;
+import me.levitate.quill.storage.StorageLoader;
 import me.levitate.quill.utils.common.TaskScheduler;
 import org.bukkit.plugin.Plugin;
 
@@ -58,6 +60,7 @@ public class DependencyContainer {
             registerModule(TaskScheduler.class);
             registerModule(EventManager.class);
             registerModule(CommandManager.class);
+            registerModule(StorageLoader.class);
         } catch (DependencyException e) {
             logger.log(Level.SEVERE, "Failed to register core modules:", e);
         }
@@ -73,6 +76,9 @@ public class DependencyContainer {
                 return;
             }
 
+            // Wait for the data the module requires, which loads in the background
+            awaitRequiredData(moduleClass);
+
             // Regular module registration
             Object instance = createInstance(moduleClass);
 
@@ -117,6 +123,17 @@ public class DependencyContainer {
         }
     }
 
+    private void awaitRequiredData(Class<?> moduleClass) {
+        RequiresData requiresData = moduleClass.getAnnotation(RequiresData.class);
+        if (requiresData == null) return;
+
+        StorageLoader storageLoader = (StorageLoader) modules.get(StorageLoader.class);
+        if (storageLoader == null) {
+            throw new DependencyException("Module requires data but the storage loader is not registered: " + moduleClass.getName());
+        }
+        storageLoader.await(requiresData.value());
+    }
+
     private void processPluginClass(Class<?> pluginClass) {
         modules.put(pluginClass, hostPlugin);
         injectDependencies(hostPlugin);
@@ -0,0 +1,357 @@
+package me.levitate.quill.session;
+
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+
+/**
+ * Holds one kind of player data for the players that are online, see {@link SessionManager}.
+ * <p>
+ * Data is loaded while the player logs in, on the login thread, and saved in batches off the main thread
+ * after they quit. It stays loaded for a grace period, so quick reconnects don't hit the store again.
+ * Data should only be modified on the main thread, and flagged with {@link #markDirty} to be saved while the player is online.
+ * Each save hands a snapshot of the data, copied on the main thread, to the store, so it never sees the data halfway through a change.
+ * </p>
+ *
+ * @param <T> Player data
+ */
+public class PlayerSessions<T> {
+    @Getter
+    private final String name;
+    private final Plugin plugin;
+    private final SessionStore<T> store;
+    private final Function<UUID, T> factory;
+    private final UnaryOperator<T> snapshot;
+    private final long gracePeriodTicks;
+    @Getter
+    private final String loadFailureMessage;
+
+    private final Map<UUID, Session<T>> sessions = new ConcurrentHashMap<>();
+    private final Set<UUID> pendingSaves = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+    private final BukkitTask saveTask;
+
+    PlayerSessions(Builder<T> builder, Plugin plugin) {
+        this.name = builder.name;
+        this.plugin = plugin;
+        this.store = builder.store;
+        this.factory = builder.factory;
+        this.snapshot = builder.snapshot;
+        this.gracePeriodTicks = builder.gracePeriodTicks;
+        this.loadFailureMessage = builder.loadFailureMessage;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Quill-Sessions-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.saveTask = Bukkit.getScheduler().runTaskTimer(plugin, this::saveDirty,
+                builder.saveIntervalTicks, builder.saveIntervalTicks);
+
+        // Players that are already online, for example after a reload, are loaded in the background
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            loadAsync(player.getUniqueId());
+        }
+    }
+
+    /**
+     * Gets the data of a player, if it is loaded.
+     */
+    public Optional<T> get(UUID playerId) {
+        Session<T> session = sessions.get(playerId);
+        return session == null ? Optional.empty() : Optional.of(session.data);
+    }
+
+    /**
+     * Gets the data of an online player, which is loaded before they join.
+     */
+    public Optional<T> get(Player player) {
+        return get(player.getUniqueId());
+    }
+
+    public boolean isLoaded(UUID playerId) {
+        return sessions.containsKey(playerId);
+    }
+
+    /**
+     * Gets the ids of every player whose data is loaded, including players within their grace period.
+     */
+    public Set<UUID> getLoaded() {
+        return Collections.unmodifiableSet(sessions.keySet());
+    }
+
+    /**
+     * Loads the data of a player who may be offline. Data of offline players is unloaded after the grace period.
+     *
+     * @return A future completed with the data
+     */
+    public CompletableFuture<T> load(UUID playerId) {
+        Session<T> session = sessions.get(playerId);
+        if (session != null) {
+            return CompletableFuture.completedFuture(session.data);
+        }
+        return loadAsync(playerId).thenApply(loaded -> {
+            scheduleUnload(loaded);
+            return loaded.data;
+        });
+    }
+
+    /**
+     * Flags the data of a player as modified, so it is saved with the next batch.
+     */
+    public void markDirty(UUID playerId) {
+        if (sessions.containsKey(playerId)) {
+            pendingSaves.add(playerId);
+        }
+    }
+
+    /**
+     * Saves the data of every player flagged since the last batch, off the main thread.
+     * Runs automatically every save interval. Must be called from the main thread, where the data is copied.
+     *
+     * @return A future that completes once the batch has been saved
+     */
+    public CompletableFuture<Void> saveDirty() {
+        if (pendingSaves.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Map<UUID, T> batch = new HashMap<>();
+        List<Session<T>> saved = new ArrayList<>();
+        Iterator<UUID> iterator = pendingSaves.iterator();
+        while (iterator.hasNext()) {
+            UUID playerId = iterator.next();
+            iterator.remove();
+
+            Session<T> session = sessions.get(playerId);
+            if (session != null) {
+                batch.put(playerId, snapshot.apply(session.data));
+                saved.add(session);
+            }
+        }
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> store.save(batch), executor);
+        saved.forEach(session -> session.lastSave = future);
+        return future.exceptionally(throwable -> {
+            // Flag the batch again, so the next save retries it
+            pendingSaves.addAll(batch.keySet());
+            plugin.getLogger().log(Level.SEVERE, "Failed to save player sessions: " + name, throwable);
+            return null;
+        });
+    }
+
+    /**
+     * Stops the background saves and saves the data of every loaded player on the calling thread.
+     */
+    public void close() {
+        saveTask.cancel();
+        sessions.values().forEach(Session::cancelUnload);
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for player sessions to save: " + name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Map<UUID, T> all = new HashMap<>();
+        sessions.forEach((playerId, session) -> all.put(playerId, session.data));
+        if (!all.isEmpty()) {
+            store.save(all);
+        }
+        sessions.clear();
+        pendingSaves.clear();
+    }
+
+    /**
+     * Loads the player's data on the login thread, the login is refused if this throws.
+     */
+    void preLogin(UUID playerId) {
+        Session<T> session = loadSession(playerId);
+        // Unloads the data again if the login is refused later on and the player never joins
+        scheduleUnload(session);
+    }
+
+    void join(UUID playerId) {
+        Session<T> session = sessions.get(playerId);
+        if (session == null) {
+            loadAsync(playerId);
+            return;
+        }
+        session.active = true;
+        session.cancelUnload();
+    }
+
+    void quit(UUID playerId) {
+        Session<T> session = sessions.get(playerId);
+        if (session == null) return;
+
+        session.active = false;
+        pendingSaves.add(playerId);
+        scheduleUnload(session);
+    }
+
+    private CompletableFuture<Session<T>> loadAsync(UUID playerId) {
+        return CompletableFuture.supplyAsync(() -> loadSession(playerId), executor).exceptionally(throwable -> {
+            plugin.getLogger().log(Level.SEVERE, "Failed to load player session " + name + " of " + playerId, throwable);
+            throw new CompletionException(throwable);
+        });
+    }
+
+    private Session<T> loadSession(UUID playerId) {
+        while (true) {
+            Session<T> existing = sessions.get(playerId);
+            if (existing != null) {
+                existing.active = true;
+                existing.cancelUnload();
+                // Checked again, in case the session was unloaded before it was marked active
+                if (sessions.get(playerId) == existing) return existing;
+                continue;
+            }
+
+            T data = store.load(playerId);
+            Session<T> session = new Session<>(playerId, data != null ? data : factory.apply(playerId));
+            session.active = true;
+            if (sessions.putIfAbsent(playerId, session) == null) return session;
+        }
+    }
+
+    private void scheduleUnload(Session<T> session) {
+        session.cancelUnload();
+        synchronized (session) {
+            session.unloadTask = Bukkit.getScheduler().runTaskLater(plugin, () -> unload(session), gracePeriodTicks);
+        }
+    }
+
+    private void unload(Session<T> session) {
+        UUID playerId = session.playerId;
+        if (sessions.get(playerId) != session || plugin.getServer().getPlayer(playerId) != null) return;
+
+        session.active = false;
+        if (pendingSaves.contains(playerId)) {
+            saveDirty();
+        }
+
+        // Only dropped once its data is saved, so a reconnect never loads stale data from the store
+        session.lastSave.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                scheduleUnload(session);
+                return;
+            }
+            sessions.computeIfPresent(playerId, (key, current) -> current == session && !current.active ? null : current);
+        });
+    }
+
+    private static class Session<T> {
+        private final UUID playerId;
+        private final T data;
+        private volatile boolean active;
+        private volatile CompletableFuture<Void> lastSave = CompletableFuture.completedFuture(null);
+        private BukkitTask unloadTask;
+
+        private Session(UUID playerId, T data) {
+            this.playerId = playerId;
+            this.data = data;
+        }
+
+        private synchronized void cancelUnload() {
+            if (unloadTask != null) {
+                unloadTask.cancel();
+                unloadTask = null;
+            }
+        }
+    }
+
+    public static class Builder<T> {
+        private final SessionManager manager;
+        private final String name;
+        private SessionStore<T> store;
+        private Function<UUID, T> factory;
+        private UnaryOperator<T> snapshot;
+        private long gracePeriodTicks = 600;
+        private long saveIntervalTicks = 100;
+        private String loadFailureMessage = "<red>Failed to load your data, please try again.";
+
+        Builder(SessionManager manager, String name) {
+            this.manager = manager;
+            this.name = name;
+        }
+
+        public Builder<T> store(SessionStore<T> store) {
+            this.store = store;
+            return this;
+        }
+
+        /**
+         * Creates the data of players the store has no data for.
+         */
+        public Builder<T> factory(Function<UUID, T> factory) {
+            this.factory = factory;
+            return this;
+        }
+
+        /**
+         * Sets how the data is copied on the main thread before it is saved off it. The copy must not share
+         * mutable state with the data, for example {@code data -> adapter.fromJsonValue(adapter.toJsonValue(data))}.
+         * Data that is never modified after loading may use {@link UnaryOperator#identity()}.
+         */
+        public Builder<T> snapshot(UnaryOperator<T> snapshot) {
+            this.snapshot = snapshot;
+            return this;
+        }
+
+        /**
+         * Sets how long data stays loaded after the player quits, in ticks. Defaults to 30 seconds.
+         */
+        public Builder<T> gracePeriod(long gracePeriodTicks) {
+            this.gracePeriodTicks = gracePeriodTicks;
+            return this;
+        }
+
+        /**
+         * Sets how often modified data is saved in a batch, in ticks. Defaults to 5 seconds.
+         */
+        public Builder<T> saveInterval(long saveIntervalTicks) {
+            this.saveIntervalTicks = saveIntervalTicks;
+            return this;
+        }
+
+        /**
+         * Sets the MiniMessage kick message shown when a player's data can't be loaded.
+         */
+        public Builder<T> loadFailureMessage(String loadFailureMessage) {
+            this.loadFailureMessage = loadFailureMessage;
+            return this;
+        }
+
+        public PlayerSessions<T> build() {
+            validate();
+            return manager.register(this);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        private void validate() {
+            if (name == null) throw new IllegalStateException("Name is required");
+            if (store == null) throw new IllegalStateException("Store is required");
+            if (factory == null) throw new IllegalStateException("Factory is required");
+            if (snapshot == null) throw new IllegalStateException("Snapshot is required");
+            if (gracePeriodTicks < 0) throw new IllegalStateException("Grace period cannot be negative");
+            if (saveIntervalTicks <= 0) throw new IllegalStateException("Save interval must be positive");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package me.levitate.quill.session;
+
+import me.levitate.quill.chat.Chat;
+import me.levitate.quill.event.EventManager;
+import me.levitate.quill.injection.annotation.Inject;
+import me.levitate.quill.injection.annotation.Module;
+import me.levitate.quill.injection.annotation.PostConstruct;
+import me.levitate.quill.injection.annotation.PreDestroy;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+
+/**
+ * Manages per-player data sessions, loaded asynchronously while players log in and saved in batches after they quit.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * PlayerSessions<Profile> profiles = sessionManager.<Profile>builder("profiles")
+ *         .store(SessionStore.of(profileStorage))
+ *         .factory(Profile::new)
+ *         .snapshot(Profile::copy)
+ *         .build();
+ *
+ * Profile profile = profiles.get(player).orElseThrow();
+ * }</pre>
+ * </p>
+ */
+@Module
+public class SessionManager {
+    private final Map<String, PlayerSessions<?>> sessions = new ConcurrentHashMap<>();
+
+    @Inject
+    private Plugin plugin;
+
+    @Inject
+    private EventManager eventManager;
+
+    @PostConstruct
+    public void init() {
+        // Runs late so logins refused by other plugins don't load any data
+        eventManager.listen(AsyncPlayerPreLoginEvent.class)
+                .highest()
+                .filter(event -> event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED)
+                .handle(this::handlePreLogin);
+
+        eventManager.listen(PlayerJoinEvent.class)
+                .lowest()
+                .handle(event -> sessions.values().forEach(session -> session.join(event.getPlayer().getUniqueId())));
+
+        eventManager.listen(PlayerQuitEvent.class)
+                .monitor()
+                .handle(event -> sessions.values().forEach(session -> session.quit(event.getPlayer().getUniqueId())));
+    }
+
+    /**
+     * Saves the data of every loaded player before shutting down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        sessions.values().forEach(session -> {
+            try {
+                session.close();
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to save player sessions: " + session.getName(), e);
+            }
+        });
+        sessions.clear();
+    }
+
+    /**
+     * Start building player sessions
+     * @param name A unique name, used in logs and thread names
+     */
+    public <T> PlayerSessions.Builder<T> builder(String name) {
+        return new PlayerSessions.Builder<>(this, name);
+    }
+
+    /**
+     * Create player sessions with the default grace period and save interval
+     * @param name A unique name, used in logs and thread names
+     * @param store Where the data is loaded from and saved to
+     * @param factory Creates the data of players the store has no data for
+     * @param snapshot Copies the data on the main thread before it is saved off it
+     */
+    public <T> PlayerSessions<T> create(String name, SessionStore<T> store, Function<UUID, T> factory,
+                                        UnaryOperator<T> snapshot) {
+        return this.<T>builder(name).store(store).factory(factory).snapshot(snapshot).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Optional<PlayerSessions<T>> getSessions(String name) {
+        return Optional.ofNullable((PlayerSessions<T>) sessions.get(name));
+    }
+
+    /**
+     * Stops the sessions and saves their data, on the calling thread.
+     */
+    public void remove(String name) {
+        PlayerSessions<?> removed = sessions.remove(name);
+        if (removed != null) {
+            removed.close();
+        }
+    }
+
+    <T> PlayerSessions<T> register(PlayerSessions.Builder<T> builder) {
+        if (sessions.containsKey(builder.getName())) {
+            throw new IllegalStateException("Player sessions already exist: " + builder.getName());
+        }
+
+        PlayerSessions<T> created = new PlayerSessions<>(builder, plugin);
+        sessions.put(builder.getName(), created);
+        return created;
+    }
+
+    private void handlePreLogin(AsyncPlayerPreLoginEvent event) {
+        for (PlayerSessions<?> session : sessions.values()) {
+            try {
+                session.preLogin(event.getUniqueId());
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to load player session " + session.getName()
+                        + " of " + event.getName(), e);
+                event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, Chat.translate(session.getLoadFailureMessage()));
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package me.levitate.quill.session;
+
+import me.levitate.quill.cache.Cache;
+import me.levitate.quill.storage.Storage;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Where player sessions are loaded from and saved to. Both methods are called off the main thread.
+ *
+ * @param <T> Player data
+ */
+public interface SessionStore<T> {
+    /**
+     * Load the data of a player
+     * @param playerId The player's unique id
+     * @return The stored data, or null if the player has none yet
+     */
+    T load(UUID playerId);
+
+    /**
+     * Save the data of several players at once
+     * @param batch The data to save, by player unique id
+     */
+    void save(Map<UUID, T> batch);
+
+    /**
+     * Use a storage, which must be safe to use from async threads, like a concurrent {@code JSONStorage},
+     * a {@code ShardedJSONStorage} or a {@code SQLStorage}. Each batch is written with a single save.
+     */
+    static <T> SessionStore<T> of(Storage<UUID, T> storage) {
+        return new SessionStore<>() {
+            @Override
+            public T load(UUID playerId) {
+                return storage.get(playerId).orElse(null);
+            }
+
+            @Override
+            public void save(Map<UUID, T> batch) {
+                batch.forEach(storage::put);
+                storage.save();
+            }
+        };
+    }
+
+    /**
+     * Use a cache, such as a Redis cache
+     */
+    static <T> SessionStore<T> of(Cache<UUID, T> cache) {
+        return new SessionStore<>() {
+            @Override
+            public T load(UUID playerId) {
+                return cache.get(playerId).orElse(null);
+            }
+
+            @Override
+            public void save(Map<UUID, T> batch) {
+                cache.putAll(batch);
+            }
+        };
+    }
+}
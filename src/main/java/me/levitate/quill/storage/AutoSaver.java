@@ -0,0 +1,102 @@
+package me.levitate.quill.storage;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Debounced background saving shared by the storage backends.
+ * Snapshots are taken on the thread requesting the save, the returned write task runs on a dedicated save thread.
+ * Storages that are safe to read from any thread can take the snapshot on the save thread as well.
+ */
+class AutoSaver {
+    private final Plugin plugin;
+    private final long delayTicks;
+    private final File file;
+    private final Supplier<Runnable> snapshotter;
+    private final boolean snapshotOffThread;
+    private final ExecutorService executor;
+    private final Object scheduleLock = new Object();
+    private BukkitTask pendingSave;
+
+    /**
+     * @param plugin The plugin used to schedule saves
+     * @param delayTicks How long to wait for further changes before saving
+     * @param file The file being saved, used for thread names and errors
+     * @param snapshotter Takes a snapshot and returns the task that writes it
+     * @param snapshotOffThread Whether the snapshot may be taken on the save thread
+     */
+    AutoSaver(Plugin plugin, long delayTicks, File file, Supplier<Runnable> snapshotter, boolean snapshotOffThread) {
+        this.plugin = plugin;
+        this.delayTicks = delayTicks;
+        this.file = file;
+        this.snapshotter = snapshotter;
+        this.snapshotOffThread = snapshotOffThread;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Quill-Storage-" + file.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    CompletableFuture<Void> saveAsync() {
+        cancel();
+        if (snapshotOffThread) {
+            return CompletableFuture.runAsync(() -> snapshotter.get().run(), executor);
+        }
+
+        Runnable write = snapshotter.get();
+        return CompletableFuture.runAsync(write, executor);
+    }
+
+    void request() {
+        synchronized (scheduleLock) {
+            if (pendingSave != null) return;
+
+            Runnable save = () -> {
+                synchronized (scheduleLock) {
+                    pendingSave = null;
+                }
+                saveAsync().exceptionally(throwable -> {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to autosave file: " + file, throwable);
+                    return null;
+                });
+            };
+            pendingSave = snapshotOffThread
+                    ? Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, save, delayTicks)
+                    : Bukkit.getScheduler().runTaskLater(plugin, save, delayTicks);
+        }
+    }
+
+    void cancel() {
+        synchronized (scheduleLock) {
+            if (pendingSave != null) {
+                pendingSave.cancel();
+                pendingSave = null;
+            }
+        }
+    }
+
+    /**
+     * Cancels any pending save and waits for running writes to finish.
+     */
+    void shutdown() {
+        cancel();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for pending saves of file: " + file);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
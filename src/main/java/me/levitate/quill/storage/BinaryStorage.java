@@ -0,0 +1,420 @@
+package me.levitate.quill.storage;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import lombok.AccessLevel;
+import lombok.Getter;
+import me.levitate.quill.storage.binary.BinaryCodec;
+import me.levitate.quill.storage.binary.BinaryCodecs;
+import me.levitate.quill.storage.binary.BinaryFileReader;
+import me.levitate.quill.storage.binary.BinaryFileWriter;
+import me.levitate.quill.storage.binary.codecs.common.JsonTreeCodec;
+import me.levitate.quill.storage.io.AtomicFile;
+import org.bukkit.plugin.Plugin;
+
+import java.io.*;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Storage backed by a compact binary file, with the same API as {@link JSONStorage}.
+ * Records are length-prefixed, numbers are varint encoded and strings are deduplicated through a per-file dictionary.
+ * Types without a registered {@link BinaryCodec} are encoded through their Moshi adapter.
+ *
+ * @param <K> Key
+ * @param <V> Value
+ */
+@Getter
+public class BinaryStorage<K, V> implements Storage<K, V> {
+    private final Map<K, V> storage;
+    private final File file;
+    @Getter(AccessLevel.NONE)
+    private final BinaryCodec<K> keyCodec;
+    @Getter(AccessLevel.NONE)
+    private final BinaryCodec<V> valueCodec;
+    @Getter(AccessLevel.NONE)
+    private final Predicate<K> loadFilter;
+    @Getter(AccessLevel.NONE)
+    private final boolean fsync;
+
+    // Only set when the builder enabled autosave
+    @Getter(AccessLevel.NONE)
+    private final AutoSaver autoSaver;
+    @Getter(AccessLevel.NONE)
+    private final Object writeLock = new Object();
+    @Getter(AccessLevel.NONE)
+    private final ChangeTracker<K> changes = new ChangeTracker<>();
+
+    protected BinaryStorage(Builder<K, V> builder) {
+        this.storage = new HashMap<>();
+        this.file = new File(builder.dataFolder, builder.fileName);
+        this.fsync = builder.fsync;
+        this.loadFilter = builder.loadFilter;
+
+        Moshi moshi = JSONStorage.createMoshi(builder.customAdapters);
+        Map<Class<?>, BinaryCodec<?>> codecs = BinaryCodecs.defaults();
+        codecs.putAll(builder.customCodecs);
+        this.keyCodec = codecFor(codecs, moshi, builder.keyClass);
+        this.valueCodec = codecFor(codecs, moshi, builder.valueClass);
+
+        this.autoSaver = builder.plugin != null
+                ? new AutoSaver(builder.plugin, builder.autoSaveDelay, file, this::takeSnapshot, false)
+                : null;
+
+        // Create data folder if it doesn't exist
+        if (!builder.dataFolder.exists() && !builder.dataFolder.mkdirs()) {
+            throw new RuntimeException("Could not create data folder: " + builder.dataFolder);
+        }
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> BinaryCodec<T> codecFor(Map<Class<?>, BinaryCodec<?>> codecs, Moshi moshi, Class<T> type) {
+        BinaryCodec<?> codec = codecs.get(type);
+        if (codec != null) {
+            return (BinaryCodec<T>) codec;
+        }
+        JsonAdapter<T> adapter = moshi.adapter(type);
+        return new JsonTreeCodec<>(adapter);
+    }
+
+    /**
+     * Writes the data to disk, if anything changed since the last save.
+     * Values modified in place outside of {@link #update} must be flagged with {@link #markDirty}.
+     */
+    @Override
+    public void save() {
+        if (autoSaver != null) {
+            autoSaver.cancel();
+        }
+        if (!changes.isDirty()) return;
+
+        synchronized (writeLock) {
+            ChangeTracker.Pending<K> pending = changes.begin();
+            try {
+                AtomicFile.write(file, fsync, sink -> writeEntries(sink.outputStream(), storage));
+                changes.complete(pending);
+            } catch (IOException e) {
+                changes.fail(pending);
+                throw new RuntimeException("Failed to write data to binary file: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Encodes the data on the calling thread and writes it to disk on the storage's save thread.
+     * Must be called from the main thread, or whichever thread owns this storage.
+     *
+     * @return A future that completes once the snapshot has been written
+     */
+    public CompletableFuture<Void> saveAsync() {
+        if (autoSaver == null) {
+            throw new IllegalStateException("Autosave is not enabled for storage: " + file);
+        }
+        return autoSaver.saveAsync();
+    }
+
+    /**
+     * Schedules an asynchronous save after the autosave delay.
+     * Further calls before the save runs are coalesced into that single save.
+     */
+    public void requestSave() {
+        if (autoSaver != null) {
+            autoSaver.request();
+        }
+    }
+
+    /**
+     * Stops the autosave thread and writes the current data synchronously.
+     * Call this when your plugin disables.
+     */
+    @Override
+    public void close() {
+        if (autoSaver != null) {
+            autoSaver.shutdown();
+        }
+        save();
+    }
+
+    private Runnable takeSnapshot() {
+        StorageSnapshot snapshot = snapshot();
+        return () -> {
+            if (snapshot.isEmpty()) return;
+
+            synchronized (writeLock) {
+                try {
+                    snapshot.write(fsync);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to write data to binary file: " + file, e);
+                }
+            }
+        };
+    }
+
+    private StorageSnapshot snapshot() {
+        if (!changes.isDirty()) {
+            return StorageSnapshot.EMPTY;
+        }
+
+        // Binary encoding is cheap enough to do up front, which fully detaches the snapshot from the live values
+        ChangeTracker.Pending<K> pending = changes.begin();
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        try {
+            writeEntries(data, storage);
+        } catch (IOException e) {
+            changes.fail(pending);
+            throw new UncheckedIOException("Failed to encode data for binary file: " + file, e);
+        }
+
+        return new StorageSnapshot(() -> changes.complete(pending), () -> changes.fail(pending),
+                () -> changes.isSuperseded(pending))
+                .add(file, sink -> data.writeTo(sink.outputStream()));
+    }
+
+    /**
+     * Exposes the snapshots of this storage to the shared {@link StorageWriter}.
+     */
+    StorageSnapshot.Source snapshotSource() {
+        return new StorageSnapshot.Source() {
+            @Override
+            public File getFile() {
+                return file;
+            }
+
+            @Override
+            public Object getWriteLock() {
+                return writeLock;
+            }
+
+            @Override
+            public boolean isDirty() {
+                return changes.isDirty();
+            }
+
+            @Override
+            public boolean isSnapshotThreadSafe() {
+                return false;
+            }
+
+            @Override
+            public StorageSnapshot snapshot() {
+                return BinaryStorage.this.snapshot();
+            }
+        };
+    }
+
+    /**
+     * Flags a key as changed, for values that were modified in place without {@link #update}.
+     */
+    @Override
+    public void markDirty(K key) {
+        changes.markChanged(key);
+        requestSave();
+    }
+
+    @Override
+    public boolean isDirty() {
+        return changes.isDirty();
+    }
+
+    /**
+     * Gets the number of changes made since the last save.
+     */
+    public long getPendingChanges() {
+        return changes.getPendingChanges();
+    }
+
+    public long getVersion() {
+        return changes.getVersion();
+    }
+
+    public long getSavedVersion() {
+        return changes.getSavedVersion();
+    }
+
+    public Set<K> getDirtyKeys() {
+        return changes.getDirtyKeys();
+    }
+
+    private void markChanged(K key) {
+        changes.markChanged(key);
+        requestSave();
+    }
+
+    private void writeEntries(OutputStream output, Map<K, V> entries) throws IOException {
+        BinaryFileWriter writer = new BinaryFileWriter(output);
+        for (Map.Entry<K, V> entry : entries.entrySet()) {
+            writer.write(entry.getKey(), keyCodec, entry.getValue(), valueCodec);
+        }
+    }
+
+    @Override
+    public void load() {
+        load(loadFilter);
+    }
+
+    /**
+     * Loads the file record by record, straight into the storage.
+     * Records of keys rejected by the filter are skipped without decoding their value.
+     *
+     * @param filter Which keys to keep, or null to keep every entry
+     */
+    public void load(Predicate<K> filter) {
+        File source = AtomicFile.readable(file);
+        if (source == null) return;
+
+        storage.clear();
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(source.toPath()), 65536)) {
+            BinaryFileReader reader = new BinaryFileReader(input);
+            while (reader.next()) {
+                K key = keyCodec.read(reader.record());
+                if (filter != null && !filter.test(key)) continue;
+
+                storage.put(key, valueCodec.read(reader.record()));
+            }
+            changes.reset();
+        } catch (IOException e) {
+            storage.clear();
+            throw new RuntimeException("Failed to read data from binary file: " + source, e);
+        }
+    }
+
+    @Override
+    public void update(K key, Consumer<V> consumer) {
+        V updated = storage.computeIfPresent(key, (k, v) -> {
+            consumer.accept(v);
+            return v;
+        });
+        if (updated != null) {
+            markChanged(key);
+        }
+    }
+
+    @Override
+    public void put(K key, V value) {
+        storage.put(key, value);
+        markChanged(key);
+    }
+
+    @Override
+    public void remove(K key) {
+        if (storage.remove(key) != null) {
+            markChanged(key);
+        }
+    }
+
+    @Override
+    public Optional<V> get(K key) {
+        return Optional.ofNullable(storage.get(key));
+    }
+
+    @Override
+    public Collection<V> values() {
+        return storage.values();
+    }
+
+    @Override
+    public Set<K> keys() {
+        return storage.keySet();
+    }
+
+    @Override
+    public Map<K, V> getAll() {
+        return new HashMap<>(storage);
+    }
+
+    @Override
+    public void clear() {
+        storage.clear();
+        changes.markAllChanged();
+        requestSave();
+    }
+
+    public static class Builder<K, V> {
+        private final List<JSONStorage.AdapterEntry<?>> customAdapters = new ArrayList<>();
+        private final Map<Class<?>, BinaryCodec<?>> customCodecs = new HashMap<>();
+        private File dataFolder;
+        private String fileName;
+        private Class<K> keyClass;
+        private Class<V> valueClass;
+        private Plugin plugin;
+        private long autoSaveDelay;
+        private boolean fsync = true;
+        private Predicate<K> loadFilter;
+
+        public Builder<K, V> dataFolder(File dataFolder) {
+            this.dataFolder = dataFolder;
+            return this;
+        }
+
+        public Builder<K, V> fileName(String fileName) {
+            this.fileName = fileName;
+            return this;
+        }
+
+        public Builder<K, V> keyClass(Class<K> keyClass) {
+            this.keyClass = keyClass;
+            return this;
+        }
+
+        public Builder<K, V> valueClass(Class<V> valueClass) {
+            this.valueClass = valueClass;
+            return this;
+        }
+
+        /**
+         * Enables debounced autosaving, see {@link JSONStorage.Builder#autoSave(Plugin, long)}.
+         */
+        public Builder<K, V> autoSave(Plugin plugin, long delayTicks) {
+            this.plugin = plugin;
+            this.autoSaveDelay = delayTicks;
+            return this;
+        }
+
+        public Builder<K, V> fsync(boolean fsync) {
+            this.fsync = fsync;
+            return this;
+        }
+
+        public Builder<K, V> loadFilter(Predicate<K> loadFilter) {
+            this.loadFilter = loadFilter;
+            return this;
+        }
+
+        /**
+         * Registers a codec for a type, replacing the built-in codec or the Moshi fallback.
+         */
+        public <T> Builder<K, V> addCodec(Class<T> type, BinaryCodec<T> codec) {
+            customCodecs.put(type, codec);
+            return this;
+        }
+
+        /**
+         * Registers a Moshi adapter, used for types that have no codec.
+         */
+        public <T> Builder<K, V> addAdapter(Type type, JsonAdapter<T> adapter) {
+            customAdapters.add(new JSONStorage.AdapterEntry<>(type, adapter));
+            return this;
+        }
+
+        public BinaryStorage<K, V> build() {
+            validate();
+            return new BinaryStorage<>(this);
+        }
+
+        private void validate() {
+            if (dataFolder == null) throw new IllegalStateException("Data folder is required");
+            if (fileName == null) throw new IllegalStateException("File name is required");
+            if (keyClass == null) throw new IllegalStateException("Key class is required");
+            if (valueClass == null) throw new IllegalStateException("Value class is required");
+            if (plugin != null && autoSaveDelay < 0) throw new IllegalStateException("Autosave delay cannot be negative");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package me.levitate.quill.storage;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks which keys of a storage changed since it was last saved.
+ * Every change bumps a version number, a save records the version it wrote,
+ * and the storage is dirty while the two differ.
+ *
+ * @param <K> Key
+ */
+class ChangeTracker<K> {
+    private final AtomicLong version = new AtomicLong();
+    private final Set<K> dirtyKeys = ConcurrentHashMap.newKeySet();
+    private volatile long savedVersion;
+    private volatile boolean allDirty;
+
+    void markChanged(K key) {
+        dirtyKeys.add(key);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Marks the whole storage as changed, for operations like clear that affect every key.
+     */
+    void markAllChanged() {
+        allDirty = true;
+        version.incrementAndGet();
+    }
+
+    boolean isDirty() {
+        return version.get() != savedVersion;
+    }
+
+    long getVersion() {
+        return version.get();
+    }
+
+    long getSavedVersion() {
+        return savedVersion;
+    }
+
+    long getPendingChanges() {
+        return version.get() - savedVersion;
+    }
+
+    Set<K> getDirtyKeys() {
+        return Set.copyOf(dirtyKeys);
+    }
+
+    /**
+     * Starts a save. Must be called before the data is read, so changes made during the save stay dirty.
+     */
+    Pending<K> begin() {
+        long snapshotVersion = version.get();
+        boolean all = allDirty;
+        allDirty = false;
+
+        Set<K> keys = new HashSet<>();
+        Iterator<K> iterator = dirtyKeys.iterator();
+        while (iterator.hasNext()) {
+            keys.add(iterator.next());
+            iterator.remove();
+        }
+        return new Pending<>(snapshotVersion, keys, all);
+    }
+
+    /**
+     * Whether a newer save was written since the pending one began, so writing it would put stale data on disk.
+     */
+    boolean isSuperseded(Pending<K> pending) {
+        return pending.version < savedVersion;
+    }
+
+    synchronized void complete(Pending<K> pending) {
+        savedVersion = Math.max(savedVersion, pending.version);
+    }
+
+    /**
+     * Puts the keys of a failed save back, so the next save writes them again.
+     */
+    void fail(Pending<K> pending) {
+        dirtyKeys.addAll(pending.keys);
+        if (pending.all) {
+            allDirty = true;
+        }
+    }
+
+    /**
+     * Marks the current state as saved, used after loading from disk.
+     */
+    synchronized void reset() {
+        dirtyKeys.clear();
+        allDirty = false;
+        savedVersion = version.get();
+    }
+
+    record Pending<K>(long version, Set<K> keys, boolean all) {
+    }
+}
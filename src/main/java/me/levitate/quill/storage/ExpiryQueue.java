@@ -0,0 +1,86 @@
+package me.levitate.quill.storage;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Expiry timestamps of storage entries, ordered by expiry time so purging only looks at entries that are due.
+ * Replaced timestamps stay in the queue until they reach its head, where they are skipped.
+ *
+ * @param <K> Key
+ */
+class ExpiryQueue<K> {
+    private final Map<K, Long> expiries = new ConcurrentHashMap<>();
+    private final PriorityQueue<Entry<K>> queue = new PriorityQueue<>(Comparator.comparingLong(Entry::expiresAt));
+
+    synchronized void set(K key, long expiresAt) {
+        expiries.put(key, expiresAt);
+        queue.add(new Entry<>(key, expiresAt));
+        compactIfNeeded();
+    }
+
+    synchronized void remove(K key) {
+        expiries.remove(key);
+    }
+
+    synchronized void clear() {
+        expiries.clear();
+        queue.clear();
+    }
+
+    Long get(K key) {
+        return expiries.get(key);
+    }
+
+    boolean isEmpty() {
+        return expiries.isEmpty();
+    }
+
+    boolean isExpired(K key, long now) {
+        Long expiresAt = expiries.get(key);
+        return expiresAt != null && expiresAt <= now;
+    }
+
+    /**
+     * Removes the key's expiry if it is due, used to drop the entry atomically with its expiry.
+     */
+    synchronized boolean removeIfExpired(K key, long now) {
+        if (!isExpired(key, now)) return false;
+
+        expiries.remove(key);
+        return true;
+    }
+
+    /**
+     * Takes the keys that are due from the head of the queue.
+     * Callers drop them through {@link #removeIfExpired}, which ignores keys that were given a new expiry since.
+     */
+    synchronized List<K> pollDue(long now) {
+        List<K> due = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().expiresAt <= now) {
+            Entry<K> entry = queue.poll();
+            Long current = expiries.get(entry.key);
+            if (current != null && current == entry.expiresAt) {
+                due.add(entry.key);
+            }
+        }
+        return due;
+    }
+
+    Map<K, Long> snapshot() {
+        return new HashMap<>(expiries);
+    }
+
+    /**
+     * Rebuilds the queue once stale entries outnumber live ones, so frequently renewed keys don't grow it.
+     */
+    private void compactIfNeeded() {
+        if (queue.size() <= expiries.size() * 2 + 64) return;
+
+        queue.clear();
+        expiries.forEach((key, expiresAt) -> queue.add(new Entry<>(key, expiresAt)));
+    }
+
+    private record Entry<K>(K key, long expiresAt) {
+    }
+}
@@ -0,0 +1,19 @@
+package me.levitate.quill.storage;
+
+/**
+ * How {@link StorageWriter} forces written files to disk.
+ */
+public enum FsyncPolicy {
+    /**
+     * Every file is synced and replaced on its own
+     */
+    ALWAYS,
+    /**
+     * All files of a group commit are written first, then synced in one pass and replaced together
+     */
+    BATCH,
+    /**
+     * Files are replaced atomically but left to the OS to flush, fastest but may lose recent saves on power loss
+     */
+    NEVER
+}
@@ -1,53 +1,112 @@
 package me.levitate.quill.storage;
 
 import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
 import com.squareup.moshi.Moshi;
 import com.squareup.moshi.Types;
+import lombok.AccessLevel;
 import lombok.Getter;
 import me.levitate.quill.storage.adapters.bukkit.ItemStackAdapter;
 import me.levitate.quill.storage.adapters.bukkit.LocationAdapter;
 import me.levitate.quill.storage.adapters.bukkit.WorldAdapter;
 import me.levitate.quill.storage.adapters.common.BooleanAdapter;
 import me.levitate.quill.storage.adapters.common.UUIDAdapter;
+import me.levitate.quill.storage.feed.ChangeEvent;
+import me.levitate.quill.storage.feed.ChangeFeed;
+import me.levitate.quill.storage.intern.InterningAdapterFactory;
+import me.levitate.quill.storage.io.AtomicFile;
+import me.levitate.quill.storage.io.JsonMapIO;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * This is the class that handles the JSON storage.
+ * <p>
+ * By default the storage must only be used from the main thread. Storages built in concurrent mode
+ * are backed by a concurrent map instead, can be read and written from any thread, and apply
+ * {@link #update}, {@link #compute} and {@link #merge} atomically per key.
+ * </p>
+ * <p>
+ * Entries stored with a time to live are hidden from reads once expired, and dropped from memory
+ * and the file by the next purge. Reading the keys, values, all entries or an index purges the entries that are due
+ * first, so views taken before an entry expires may still contain it. Expiry timestamps are kept in a sidecar file
+ * next to the data.
+ * </p>
+ * <p>
+ * Every change is published to the {@link ChangeFeed change feed}, for replication to other servers or caches.
+ * Published values are copies, so subscribers may read them on other threads.
+ * </p>
  *
  * @param <K> Key
  * @param <V> Value
  */
 @Getter
-public class JSONStorage<K, V> {
+public class JSONStorage<K, V> implements Storage<K, V> {
     private final Map<K, V> storage;
     private final Moshi moshi;
     private final JsonAdapter<Map<K, V>> jsonAdapter;
+    @Getter(AccessLevel.NONE)
+    private final JsonAdapter<K> keyAdapter;
+    @Getter(AccessLevel.NONE)
+    private final JsonAdapter<V> valueAdapter;
+    @Getter(AccessLevel.NONE)
+    private final Predicate<K> loadFilter;
     private final File file;
+    @Getter(AccessLevel.NONE)
+    private final boolean fsync;
+    private final boolean concurrent;
 
-    protected JSONStorage(Builder<K, V> builder) {
-        this.storage = new HashMap<>();
-        this.file = new File(builder.dataFolder, builder.fileName);
+    // Only set when the builder enabled autosave
+    @Getter(AccessLevel.NONE)
+    private final AutoSaver autoSaver;
+    @Getter(AccessLevel.NONE)
+    private final Object writeLock = new Object();
+    @Getter(AccessLevel.NONE)
+    private final ChangeTracker<K> changes = new ChangeTracker<>();
+    @Getter(AccessLevel.NONE)
+    private final Map<String, StorageIndex<K, V>> indexes;
+    @Getter(AccessLevel.NONE)
+    private final ExpiryQueue<K> expiries = new ExpiryQueue<>();
+    @Getter(AccessLevel.NONE)
+    private final File expiryFile;
+    @Getter(AccessLevel.NONE)
+    private final JsonAdapter<Map<K, Long>> expiryAdapter;
+    @Getter(AccessLevel.NONE)
+    private final JsonAdapter<Long> timestampAdapter;
+    private final ChangeFeed<K, V> changeFeed = new ChangeFeed<>();
 
-        // Build Moshi instance with all registered adapters
-        Moshi.Builder moshiBuilder = new Moshi.Builder()
-                .add(new LocationAdapter())
-                .add(new WorldAdapter())
-                .add(new ItemStackAdapter())
-                .add(new UUIDAdapter())
-                .add(new BooleanAdapter());
+    // Only set when the builder enabled the expiry purge
+    @Getter(AccessLevel.NONE)
+    private final BukkitTask purgeTask;
 
-        // Add custom adapters
-        builder.customAdapters.forEach(adapter ->
-                moshiBuilder.add(adapter.type, adapter.jsonAdapter));
+    protected JSONStorage(Builder<K, V> builder) {
+        this.concurrent = builder.concurrent;
+        this.storage = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+        this.file = new File(builder.dataFolder, builder.fileName);
+        this.fsync = builder.fsync;
+        this.autoSaver = builder.plugin != null
+                ? new AutoSaver(builder.plugin, builder.autoSaveDelay, file, this::takeSnapshot, concurrent)
+                : null;
 
-        this.moshi = moshiBuilder.build();
+        this.moshi = createMoshi(builder.customAdapters, builder.interning);
 
         // Create the type adapter for the Map
         this.jsonAdapter = moshi.adapter(Types.newParameterizedType(
@@ -55,73 +114,642 @@ public class JSONStorage<K, V> {
                 builder.keyClass,
                 builder.valueClass
         ));
+        this.keyAdapter = moshi.adapter(builder.keyClass);
+        this.valueAdapter = moshi.adapter(builder.valueClass);
+        this.loadFilter = builder.loadFilter;
+
+        this.expiryFile = new File(builder.dataFolder, builder.fileName + ".expiry");
+        this.expiryAdapter = moshi.adapter(Types.newParameterizedType(Map.class, builder.keyClass, Long.class));
+        this.timestampAdapter = moshi.adapter(Long.class);
+
+        this.indexes = new LinkedHashMap<>();
+        builder.indexes.forEach(definition ->
+                indexes.put(definition.name, new StorageIndex<>(definition.name, definition.extractor, definition.sorted)));
 
         // Create data folder if it doesn't exist
         if (!builder.dataFolder.exists() && !builder.dataFolder.mkdirs()) {
             throw new RuntimeException("Could not create data folder: " + builder.dataFolder);
         }
+
+        if (builder.purgePlugin == null) {
+            this.purgeTask = null;
+        } else if (concurrent) {
+            this.purgeTask = Bukkit.getScheduler().runTaskTimerAsynchronously(
+                    builder.purgePlugin, this::purgeExpired, builder.purgeInterval, builder.purgeInterval);
+        } else {
+            this.purgeTask = Bukkit.getScheduler().runTaskTimer(
+                    builder.purgePlugin, this::purgeExpired, builder.purgeInterval, builder.purgeInterval);
+        }
     }
 
     public static <K, V> Builder<K, V> builder() {
         return new Builder<>();
     }
 
+    /**
+     * Builds a Moshi instance with Quill's default adapters and the given custom adapters.
+     */
+    static Moshi createMoshi(List<AdapterEntry<?>> customAdapters) {
+        return createMoshi(customAdapters, null);
+    }
+
+    /**
+     * Builds a Moshi instance with Quill's default adapters and the given custom adapters,
+     * interning the values they decode through the given factory if it isn't null.
+     */
+    static Moshi createMoshi(List<AdapterEntry<?>> customAdapters, InterningAdapterFactory interning) {
+        Moshi.Builder moshiBuilder = new Moshi.Builder();
+
+        // Added first so it wraps every other adapter of the interned types
+        if (interning != null) {
+            moshiBuilder.add(interning);
+        }
+
+        // Build Moshi instance with all registered adapters
+        // JsonAdapter instances must be registered with their type, add(Object) expects @ToJson/@FromJson methods
+        moshiBuilder
+                .add(Location.class, new LocationAdapter().nullSafe())
+                .add(World.class, new WorldAdapter().nullSafe())
+                .add(ItemStack.class, new ItemStackAdapter().nullSafe())
+                .add(UUID.class, new UUIDAdapter().nullSafe())
+                .add(Boolean.class, new BooleanAdapter().nullSafe());
+
+        // Add custom adapters
+        customAdapters.forEach(adapter ->
+                moshiBuilder.add(adapter.type, adapter.jsonAdapter));
+
+        return moshiBuilder.build();
+    }
+
+    /**
+     * Writes the data to disk, if anything changed since the last save.
+     * Changes made through this class are tracked automatically, values modified in place
+     * outside of {@link #update} must be flagged with {@link #markDirty}.
+     * Asynchronous saves that are still queued are skipped once this save is written, so they can't overwrite it.
+     */
+    @Override
     public void save() {
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write(jsonAdapter.toJson(storage));
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to write data to json file: " + file, e);
+        if (autoSaver != null) {
+            autoSaver.cancel();
+        }
+        purge(System.currentTimeMillis());
+        if (!changes.isDirty()) return;
+
+        if (concurrent) {
+            // Values may be updated by other threads while writing, so write a consistent snapshot
+            writeSnapshot(snapshot());
+            return;
+        }
+
+        synchronized (writeLock) {
+            ChangeTracker.Pending<K> pending = changes.begin();
+            try {
+                JsonMapIO.write(file, fsync, jsonAdapter, storage);
+                writeExpiries(expiries.snapshot());
+                changes.complete(pending);
+            } catch (IOException e) {
+                changes.fail(pending);
+                throw new RuntimeException("Failed to write data to json file: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Takes a snapshot of the data on the calling thread and writes it to disk on the storage's save thread.
+     * The snapshot is a detached JSON tree, so changes made after this call are not part of the write.
+     * Must be called from the main thread, or whichever thread owns this storage.
+     * In concurrent mode the snapshot is taken on the save thread instead.
+     *
+     * @return A future that completes once the snapshot has been written
+     */
+    public CompletableFuture<Void> saveAsync() {
+        if (autoSaver == null) {
+            throw new IllegalStateException("Autosave is not enabled for storage: " + file);
+        }
+        return autoSaver.saveAsync();
+    }
+
+    /**
+     * Schedules an asynchronous save after the autosave delay.
+     * Further calls before the save runs are coalesced into that single save.
+     */
+    public void requestSave() {
+        if (autoSaver != null) {
+            autoSaver.request();
+        }
+    }
+
+    /**
+     * Stops the autosave thread and writes the current data synchronously.
+     * Call this when your plugin disables.
+     */
+    @Override
+    public void close() {
+        if (purgeTask != null) {
+            purgeTask.cancel();
+        }
+        if (autoSaver != null) {
+            autoSaver.shutdown();
+        }
+        save();
+    }
+
+    private Runnable takeSnapshot() {
+        StorageSnapshot snapshot = snapshot();
+        return () -> writeSnapshot(snapshot);
+    }
+
+    private StorageSnapshot snapshot() {
+        // Expired entries are dropped first, so they never reach the file
+        purge(System.currentTimeMillis());
+        if (!changes.isDirty()) {
+            return StorageSnapshot.EMPTY;
+        }
+
+        ChangeTracker.Pending<K> pending = changes.begin();
+        Map<K, Long> expirySnapshot = expiries.snapshot();
+        Object data;
+        if (!concurrent) {
+            data = jsonAdapter.toJsonValue(storage);
+        } else {
+            // Converting each value inside computeIfPresent holds that key's lock,
+            // so the snapshot never sees a value halfway through an update
+            Map<Object, Object> entries = new LinkedHashMap<>();
+            for (K key : storage.keySet()) {
+                storage.computeIfPresent(key, (k, v) -> {
+                    entries.put(keyAdapter.toJsonValue(k), valueAdapter.toJsonValue(v));
+                    return v;
+                });
+            }
+            data = entries;
+        }
+
+        StorageSnapshot snapshot = new StorageSnapshot(() -> changes.complete(pending), () -> changes.fail(pending),
+                () -> changes.isSuperseded(pending));
+        snapshot.add(file, sink -> moshi.adapter(Object.class).toJson(sink, data));
+        // Storages that never used expiry don't get a sidecar file
+        if (!expirySnapshot.isEmpty() || expiryFile.exists()) {
+            snapshot.add(expiryFile, sink -> expiryAdapter.toJson(sink, expirySnapshot));
+        }
+        return snapshot;
+    }
+
+    private void writeSnapshot(StorageSnapshot snapshot) {
+        if (snapshot.isEmpty()) return;
+
+        synchronized (writeLock) {
+            try {
+                snapshot.write(fsync);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write data to json file: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Exposes the snapshots of this storage to the shared {@link StorageWriter}.
+     */
+    StorageSnapshot.Source snapshotSource() {
+        return new StorageSnapshot.Source() {
+            @Override
+            public File getFile() {
+                return file;
+            }
+
+            @Override
+            public Object getWriteLock() {
+                return writeLock;
+            }
+
+            @Override
+            public boolean isDirty() {
+                return changes.isDirty();
+            }
+
+            @Override
+            public boolean isSnapshotThreadSafe() {
+                return concurrent;
+            }
+
+            @Override
+            public StorageSnapshot snapshot() {
+                return JSONStorage.this.snapshot();
+            }
+        };
+    }
+
+    private void writeExpiries(Map<K, Long> snapshot) throws IOException {
+        // Storages that never used expiry don't get a sidecar file
+        if (snapshot.isEmpty() && !expiryFile.exists()) return;
+
+        JsonMapIO.write(expiryFile, fsync, expiryAdapter, snapshot);
+    }
+
+    /**
+     * Flags a key as changed, for values that were modified in place without {@link #update}.
+     */
+    @Override
+    public void markDirty(K key) {
+        markChanged(key);
+    }
+
+    /**
+     * Checks whether anything changed since the last save.
+     */
+    @Override
+    public boolean isDirty() {
+        return changes.isDirty();
+    }
+
+    /**
+     * Gets the number of changes made since the last save, useful to adapt save intervals to write volume.
+     */
+    public long getPendingChanges() {
+        return changes.getPendingChanges();
+    }
+
+    /**
+     * Gets the version of the data, incremented on every change.
+     */
+    public long getVersion() {
+        return changes.getVersion();
+    }
+
+    /**
+     * Gets the version of the data that was last written to disk.
+     */
+    public long getSavedVersion() {
+        return changes.getSavedVersion();
+    }
+
+    /**
+     * Gets the keys changed since the last save started.
+     */
+    public Set<K> getDirtyKeys() {
+        return changes.getDirtyKeys();
+    }
+
+    private void markChanged(K key) {
+        markChanged(key, ChangeEvent.Type.UPDATE);
+    }
+
+    private void markChanged(K key, ChangeEvent.Type type) {
+        trackChange(key, type);
+        requestSave();
+    }
+
+    private void trackChange(K key, ChangeEvent.Type type) {
+        changes.markChanged(key);
+        if (changeFeed.hasSubscribers()) {
+            changeFeed.publish(type, key, this::detachedValue);
+        }
+        if (!expiries.isEmpty() && !storage.containsKey(key)) {
+            expiries.remove(key);
+        }
+        for (StorageIndex<K, V> index : indexes.values()) {
+            index.refresh(key, storage::get);
+        }
+    }
+
+    /**
+     * Copies the key's value through its JSON tree, so the copy can be handed to other threads
+     * while the live value keeps changing. In concurrent mode the value is converted under the key's lock,
+     * like in snapshots, so the copy never sees it halfway through an update.
+     */
+    private V detachedValue(K key) {
+        if (!concurrent) {
+            V value = storage.get(key);
+            return value == null ? null : valueAdapter.fromJsonValue(valueAdapter.toJsonValue(value));
+        }
+
+        Object[] tree = {null};
+        storage.computeIfPresent(key, (k, v) -> {
+            tree[0] = valueAdapter.toJsonValue(v);
+            return v;
+        });
+        return tree[0] == null ? null : valueAdapter.fromJsonValue(tree[0]);
+    }
+
+    /**
+     * Gets a copy of every entry, detached from the live values like the values of the {@link ChangeFeed change feed}.
+     * In concurrent mode this is safe to call from any thread while the storage is being changed.
+     */
+    public Map<K, V> copyAll() {
+        purgeBeforeRead();
+        Map<K, V> copy = new HashMap<>();
+        for (K key : storage.keySet()) {
+            V value = detachedValue(key);
+            if (value != null) {
+                copy.put(key, value);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Removes every entry whose expiry has passed. Only entries that are due are visited.
+     * Runs automatically before each save, and on a timer when enabled on the builder.
+     *
+     * @return The number of entries removed
+     */
+    public int purgeExpired() {
+        int purged = purge(System.currentTimeMillis());
+        if (purged > 0) {
+            requestSave();
+        }
+        return purged;
+    }
+
+    private int purge(long now) {
+        if (expiries.isEmpty()) return 0;
+
+        int purged = 0;
+        for (K key : expiries.pollDue(now)) {
+            // Checked again under the key's lock, so an entry renewed in the meantime is kept
+            boolean[] removed = {false};
+            storage.computeIfPresent(key, (k, v) -> {
+                if (!expiries.removeIfExpired(k, now)) return v;
+                removed[0] = true;
+                return null;
+            });
+
+            if (removed[0]) {
+                trackChange(key, ChangeEvent.Type.REMOVE);
+                purged++;
+            } else {
+                expiries.removeIfExpired(key, now);
+            }
         }
+        return purged;
+    }
+
+    /**
+     * Sets when an existing entry expires.
+     *
+     * @return Whether the entry exists
+     */
+    public boolean expire(K key, Duration ttl) {
+        if (!storage.containsKey(key)) return false;
+
+        expiries.set(key, System.currentTimeMillis() + ttl.toMillis());
+        markChanged(key);
+        return true;
+    }
+
+    /**
+     * Removes the expiry of an entry, so it is kept until removed.
+     */
+    public void persist(K key) {
+        if (expiries.get(key) == null) return;
+
+        expiries.remove(key);
+        markChanged(key);
+    }
+
+    /**
+     * Gets when an entry expires, empty if it never does.
+     */
+    public Optional<Instant> getExpiry(K key) {
+        Long expiresAt = expiries.get(key);
+        return expiresAt == null ? Optional.empty() : Optional.of(Instant.ofEpochMilli(expiresAt));
+    }
+
+    /**
+     * Gets the values whose indexed value equals the given value, without scanning the storage.
+     *
+     * @param index The name of an index declared on the builder
+     */
+    public List<V> findBy(String index, Object value) {
+        purgeBeforeRead();
+        return resolve(getIndex(index).find(value));
     }
 
+    /**
+     * Gets the values whose indexed value lies between the bounds, both inclusive.
+     *
+     * @param index The name of a sorted index declared on the builder
+     * @param from The lower bound, or null for no lower bound
+     * @param to The upper bound, or null for no upper bound
+     */
+    public List<V> findRange(String index, Object from, Object to) {
+        purgeBeforeRead();
+        return resolve(getIndex(index).range(from, to));
+    }
+
+    /**
+     * Gets an index declared on the builder, for key lookups and distinct values.
+     */
+    public StorageIndex<K, V> getIndex(String name) {
+        StorageIndex<K, V> index = indexes.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown index: " + name);
+        }
+        return index;
+    }
+
+    private List<V> resolve(Set<K> keys) {
+        List<V> values = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            get(key).ifPresent(values::add);
+        }
+        return values;
+    }
+
+    /**
+     * Drops the entries that are due before a bulk read, so it doesn't see expired entries.
+     */
+    private void purgeBeforeRead() {
+        if (!expiries.isEmpty()) {
+            purgeExpired();
+        }
+    }
+
+    @Override
     public void load() {
-        if (!file.exists()) return;
+        load(loadFilter);
+    }
+
+    /**
+     * Loads the file entry by entry, straight into the storage.
+     * Values of keys rejected by the filter are skipped without being decoded.
+     * If the file is corrupt, the previous generation is loaded instead when available.
+     *
+     * @param filter Which keys to keep, or null to keep every entry
+     */
+    public void load(Predicate<K> filter) {
+        File source = AtomicFile.readable(file);
+        if (source == null) return;
 
         try {
-            String content = new String(Files.readAllBytes(file.toPath()));
-            Map<K, V> loadedMap = jsonAdapter.fromJson(content);
-            if (loadedMap != null) {
+            readInto(source, filter);
+        } catch (IOException | JsonDataException e) {
+            File backup = AtomicFile.backupOf(file);
+            if (source.equals(backup) || !backup.exists()) {
+                storage.clear();
+                throw new RuntimeException("Failed to read data from json file: " + source, e);
+            }
+
+            try {
+                readInto(backup, filter);
+            } catch (IOException | JsonDataException backupException) {
                 storage.clear();
-                storage.putAll(loadedMap);
+                e.addSuppressed(backupException);
+                throw new RuntimeException("Failed to read data from json file: " + source, e);
             }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read data from json file: " + file, e);
         }
     }
 
+    private void readInto(File source, Predicate<K> filter) throws IOException {
+        storage.clear();
+        expiries.clear();
+        JsonMapIO.read(source, keyAdapter, valueAdapter, filter, storage);
+        indexes.values().forEach(index -> index.rebuild(storage));
+        changes.reset();
+        loadExpiries();
+        changeFeed.publish(ChangeEvent.Type.RELOAD);
+    }
+
+    private void loadExpiries() {
+        File source = AtomicFile.readable(expiryFile);
+        if (source == null) return;
+
+        Map<K, Long> loaded = new HashMap<>();
+        try {
+            JsonMapIO.read(source, keyAdapter, timestampAdapter, storage::containsKey, loaded);
+        } catch (IOException | JsonDataException e) {
+            throw new RuntimeException("Failed to read expiries from json file: " + source, e);
+        }
+        loaded.forEach(expiries::set);
+
+        // Entries that expired while the server was offline are dropped, and the next save removes them from the file
+        purge(System.currentTimeMillis());
+    }
+
+    @Override
     public void update(K key, Consumer<V> consumer) {
-        storage.computeIfPresent(key, (k, v) -> {
+        V updated = storage.computeIfPresent(key, (k, v) -> {
             consumer.accept(v);
             return v;
         });
+        if (updated != null) {
+            markChanged(key);
+        }
+    }
+
+    /**
+     * Computes a new value for the key, atomically in concurrent mode.
+     * Returning null removes the entry.
+     *
+     * @return The new value, or null if there is none
+     */
+    public V compute(K key, BiFunction<K, V, V> remapping) {
+        V value = storage.compute(key, remapping);
+        markChanged(key);
+        return value;
+    }
+
+    /**
+     * Gets the value for the key, creating and storing it first if absent, atomically in concurrent mode.
+     */
+    public V computeIfAbsent(K key, Function<K, V> mapping) {
+        boolean[] created = {false};
+        V value = storage.computeIfAbsent(key, k -> {
+            created[0] = true;
+            return mapping.apply(k);
+        });
+        if (created[0] && value != null) {
+            markChanged(key, ChangeEvent.Type.PUT);
+        }
+        return value;
+    }
+
+    /**
+     * Stores the value if the key is absent, otherwise combines it with the current value, atomically in concurrent mode.
+     * Returning null from the remapping function removes the entry.
+     *
+     * @return The new value, or null if there is none
+     */
+    public V merge(K key, V value, BiFunction<V, V, V> remapping) {
+        V merged = storage.merge(key, value, remapping);
+        markChanged(key);
+        return merged;
     }
 
+    /**
+     * Stores the value without an expiry, replacing any expiry the key had.
+     */
+    @Override
     public void put(K key, V value) {
         storage.put(key, value);
+        if (!expiries.isEmpty()) {
+            expiries.remove(key);
+        }
+        markChanged(key, ChangeEvent.Type.PUT);
+    }
+
+    /**
+     * Stores the value until the time to live passes.
+     * Updating the value keeps its expiry, putting it again without a time to live removes it.
+     */
+    public void put(K key, V value, Duration ttl) {
+        storage.put(key, value);
+        expiries.set(key, System.currentTimeMillis() + ttl.toMillis());
+        markChanged(key, ChangeEvent.Type.PUT);
     }
 
+    @Override
     public void remove(K key) {
-        storage.remove(key);
+        if (storage.remove(key) != null) {
+            markChanged(key, ChangeEvent.Type.REMOVE);
+        }
     }
 
+    /**
+     * Gets the value of the key, empty if it is absent or expired.
+     */
+    @Override
     public Optional<V> get(K key) {
-        return Optional.ofNullable(storage.get(key));
+        V value = storage.get(key);
+        if (value != null && !expiries.isEmpty() && expiries.isExpired(key, System.currentTimeMillis())) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(value);
     }
 
+    /**
+     * Gets a live view of the values, after dropping expired entries. In concurrent mode iteration is weakly consistent and never throws
+     * {@link ConcurrentModificationException}.
+     */
+    @Override
     public Collection<V> values() {
+        purgeBeforeRead();
         return storage.values();
     }
 
+    /**
+     * Gets a live view of the keys, after dropping expired entries. In concurrent mode iteration is weakly consistent and never throws
+     * {@link ConcurrentModificationException}.
+     */
+    @Override
     public Set<K> keys() {
+        purgeBeforeRead();
         return storage.keySet();
     }
 
+    @Override
     public Map<K, V> getAll() {
+        purgeBeforeRead();
         return new HashMap<>(storage);
     }
 
+    @Override
     public void clear() {
         storage.clear();
+        expiries.clear();
+        indexes.values().forEach(StorageIndex::clear);
+        changes.markAllChanged();
+        changeFeed.publish(ChangeEvent.Type.CLEAR);
+        requestSave();
     }
 
     public static class Builder<K, V> {
@@ -130,6 +758,15 @@ public class JSONStorage<K, V> {
         private String fileName;
         private Class<K> keyClass;
         private Class<V> valueClass;
+        private Plugin plugin;
+        private long autoSaveDelay;
+        private boolean fsync = true;
+        private Predicate<K> loadFilter;
+        private boolean concurrent;
+        private final List<IndexDefinition<V>> indexes = new ArrayList<>();
+        private Plugin purgePlugin;
+        private long purgeInterval;
+        private InterningAdapterFactory interning;
 
         public Builder<K, V> dataFolder(File dataFolder) {
             this.dataFolder = dataFolder;
@@ -151,11 +788,104 @@ public class JSONStorage<K, V> {
             return this;
         }
 
+        /**
+         * Enables debounced autosaving. Every change schedules a save after the given delay,
+         * changes made before it runs are written together, and the write happens off the main thread.
+         *
+         * @param plugin The plugin used to schedule the save
+         * @param delayTicks How long to wait for further changes before saving, in ticks
+         */
+        public Builder<K, V> autoSave(Plugin plugin, long delayTicks) {
+            this.plugin = plugin;
+            this.autoSaveDelay = delayTicks;
+            return this;
+        }
+
+        /**
+         * Sets whether saves force the data to disk before replacing the file.
+         * Enabled by default, disabling it trades durability on power loss for faster saves.
+         */
+        public Builder<K, V> fsync(boolean fsync) {
+            this.fsync = fsync;
+            return this;
+        }
+
+        /**
+         * Only keeps entries whose key matches the filter when loading.
+         * Rejected values are skipped in the file without being decoded.
+         */
+        public Builder<K, V> loadFilter(Predicate<K> loadFilter) {
+            this.loadFilter = loadFilter;
+            return this;
+        }
+
+        /**
+         * Backs the storage with a concurrent map, so it can be used from async tasks and events.
+         * Null values are not supported in this mode.
+         */
+        public Builder<K, V> concurrent(boolean concurrent) {
+            this.concurrent = concurrent;
+            return this;
+        }
+
+        /**
+         * Purges expired entries on a timer, so they are released from memory even when the storage isn't saved.
+         * Without it, expired entries are hidden from reads and purged on the next save.
+         *
+         * @param plugin The plugin used to schedule the purge
+         * @param intervalTicks How often to purge, in ticks
+         */
+        public Builder<K, V> expiryPurge(Plugin plugin, long intervalTicks) {
+            this.purgePlugin = plugin;
+            this.purgeInterval = intervalTicks;
+            return this;
+        }
+
+        /**
+         * Declares a secondary index for equality lookups through {@link JSONStorage#findBy}.
+         *
+         * @param name The name used to query the index
+         * @param extractor Gets the indexed value from a stored value, null leaves the entry out of the index
+         */
+        public <I> Builder<K, V> index(String name, Function<V, I> extractor) {
+            indexes.add(new IndexDefinition<>(name, extractor, false));
+            return this;
+        }
+
+        /**
+         * Declares a sorted secondary index, which also supports range lookups through {@link JSONStorage#findRange}.
+         *
+         * @param name The name used to query the index
+         * @param extractor Gets the indexed value from a stored value, null leaves the entry out of the index
+         */
+        public <I extends Comparable<? super I>> Builder<K, V> sortedIndex(String name, Function<V, I> extractor) {
+            indexes.add(new IndexDefinition<>(name, extractor, true));
+            return this;
+        }
+
         public <T> Builder<K, V> addAdapter(Type type, JsonAdapter<T> adapter) {
             customAdapters.add(new AdapterEntry<>(type, adapter));
             return this;
         }
 
+        /**
+         * Deduplicates strings, UUIDs and locations while loading, so values repeated across
+         * many records are held in memory once.
+         *
+         * @param poolSize The maximum amount of pooled values per type
+         */
+        public Builder<K, V> intern(int poolSize) {
+            return intern(new InterningAdapterFactory(poolSize));
+        }
+
+        /**
+         * Deduplicates values while loading through the given factory, which can be shared with other storages.
+         */
+        public Builder<K, V> intern(InterningAdapterFactory interning) {
+            this.interning = interning;
+            return this;
+        }
+
         public JSONStorage<K, V> build() {
             validate();
             return new JSONStorage<>(this);
@@ -166,10 +896,19 @@ public class JSONStorage<K, V> {
             if (fileName == null) throw new IllegalStateException("File name is required");
             if (keyClass == null) throw new IllegalStateException("Key class is required");
             if (valueClass == null) throw new IllegalStateException("Value class is required");
+            if (plugin != null && autoSaveDelay < 0) throw new IllegalStateException("Autosave delay cannot be negative");
+            if (purgePlugin != null && purgeInterval <= 0) throw new IllegalStateException("Purge interval must be positive");
+            Set<String> indexNames = new HashSet<>();
+            for (IndexDefinition<V> index : indexes) {
+                if (!indexNames.add(index.name)) throw new IllegalStateException("Duplicate index name: " + index.name);
+            }
         }
     }
 
-    private static class AdapterEntry<T> {
+    private record IndexDefinition<V>(String name, Function<V, ?> extractor, boolean sorted) {
+    }
+
+    static class AdapterEntry<T> {
         final Type type;
         final JsonAdapter<T> jsonAdapter;
 
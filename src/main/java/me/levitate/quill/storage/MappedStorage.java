@@ -0,0 +1,232 @@
+package me.levitate.quill.storage;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import lombok.AccessLevel;
+import lombok.Getter;
+import me.levitate.quill.storage.binary.BinaryCodec;
+import me.levitate.quill.storage.binary.BinaryCodecs;
+import me.levitate.quill.storage.binary.MappedFile;
+import me.levitate.quill.storage.binary.MappedFileWriter;
+import me.levitate.quill.storage.io.AtomicFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-only storage for large static datasets, such as item catalogs, loot tables or name filters.
+ * <p>
+ * The file is built once with {@link #write}, and memory-mapped by {@link #load} instead of being decoded into a map.
+ * Loading is nearly instant and the data costs almost no heap: every lookup binary searches a hash index
+ * in the mapping and decodes only the matching value, so values should be cached by the caller if they are hot.
+ * Values use the same codecs as {@link BinaryStorage}. Lookups are safe from any thread.
+ * </p>
+ *
+ * @param <K> Key
+ * @param <V> Value
+ */
+@Getter
+public class MappedStorage<K, V> {
+    private final File file;
+    @Getter(AccessLevel.NONE)
+    private final BinaryCodec<K> keyCodec;
+    @Getter(AccessLevel.NONE)
+    private final BinaryCodec<V> valueCodec;
+    @Getter(AccessLevel.NONE)
+    private final boolean fsync;
+    @Getter(AccessLevel.NONE)
+    private volatile MappedFile mapped;
+
+    protected MappedStorage(Builder<K, V> builder) {
+        this.file = new File(builder.dataFolder, builder.fileName);
+        this.fsync = builder.fsync;
+
+        Moshi moshi = JSONStorage.createMoshi(builder.customAdapters);
+        Map<Class<?>, BinaryCodec<?>> codecs = BinaryCodecs.defaults();
+        codecs.putAll(builder.customCodecs);
+        this.keyCodec = BinaryStorage.codecFor(codecs, moshi, builder.keyClass);
+        this.valueCodec = BinaryStorage.codecFor(codecs, moshi, builder.valueClass);
+
+        // Create data folder if it doesn't exist
+        if (!builder.dataFolder.exists() && !builder.dataFolder.mkdirs()) {
+            throw new RuntimeException("Could not create data folder: " + builder.dataFolder);
+        }
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Maps the file into memory, replacing the previous mapping. A missing file leaves the storage empty.
+     */
+    public void load() {
+        if (!file.exists()) {
+            mapped = null;
+            return;
+        }
+
+        try {
+            mapped = MappedFile.open(file);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to map data file: " + file, e);
+        }
+    }
+
+    /**
+     * Builds the file from the given entries, replacing it atomically, and maps the new file.
+     * Entries are streamed into the file, only their key hashes are held in memory meanwhile.
+     * On Windows, the previous file can't be replaced while it is mapped, so build files before loading them there.
+     */
+    public void write(MigrationSource<K, V> source) {
+        try {
+            AtomicFile.write(file, fsync, sink -> {
+                MappedFileWriter writer = new MappedFileWriter(sink.outputStream());
+                try {
+                    source.forEach((key, value) -> {
+                        try {
+                            writer.write(key, keyCodec, value, valueCodec);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                writer.finish();
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write data to mapped file: " + file, e);
+        }
+        load();
+    }
+
+    /**
+     * Builds the file from a map, see {@link #write(MigrationSource)}.
+     */
+    public void write(Map<K, V> entries) {
+        write(entries::forEach);
+    }
+
+    /**
+     * Gets the value of the key, decoded from the mapping.
+     */
+    public Optional<V> get(K key) {
+        MappedFile current = mapped;
+        if (current == null) return Optional.empty();
+
+        try {
+            return Optional.ofNullable(current.get(key, keyCodec, valueCodec));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read data from mapped file: " + file, e);
+        }
+    }
+
+    public boolean containsKey(K key) {
+        MappedFile current = mapped;
+        if (current == null) return false;
+
+        try {
+            return current.containsKey(key, keyCodec);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read data from mapped file: " + file, e);
+        }
+    }
+
+    public int size() {
+        MappedFile current = mapped;
+        return current == null ? 0 : current.size();
+    }
+
+    public boolean isLoaded() {
+        return mapped != null;
+    }
+
+    /**
+     * Decodes every entry, in the order they were written.
+     */
+    public void forEach(BiConsumer<K, V> action) {
+        MappedFile current = mapped;
+        if (current == null) return;
+
+        try {
+            current.forEach(keyCodec, valueCodec, action);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read data from mapped file: " + file, e);
+        }
+    }
+
+    /**
+     * Releases the mapping, which is unmapped once it is garbage collected.
+     */
+    public void close() {
+        mapped = null;
+    }
+
+    public static class Builder<K, V> {
+        private final List<JSONStorage.AdapterEntry<?>> customAdapters = new ArrayList<>();
+        private final Map<Class<?>, BinaryCodec<?>> customCodecs = new HashMap<>();
+        private File dataFolder;
+        private String fileName;
+        private Class<K> keyClass;
+        private Class<V> valueClass;
+        private boolean fsync = true;
+
+        public Builder<K, V> dataFolder(File dataFolder) {
+            this.dataFolder = dataFolder;
+            return this;
+        }
+
+        public Builder<K, V> fileName(String fileName) {
+            this.fileName = fileName;
+            return this;
+        }
+
+        public Builder<K, V> keyClass(Class<K> keyClass) {
+            this.keyClass = keyClass;
+            return this;
+        }
+
+        public Builder<K, V> valueClass(Class<V> valueClass) {
+            this.valueClass = valueClass;
+            return this;
+        }
+
+        public Builder<K, V> fsync(boolean fsync) {
+            this.fsync = fsync;
+            return this;
+        }
+
+        /**
+         * Registers a codec for a type, replacing the built-in codec or the Moshi fallback.
+         */
+        public <T> Builder<K, V> addCodec(Class<T> type, BinaryCodec<T> codec) {
+            customCodecs.put(type, codec);
+            return this;
+        }
+
+        /**
+         * Registers a Moshi adapter, used for types that have no codec.
+         */
+        public <T> Builder<K, V> addAdapter(Type type, JsonAdapter<T> adapter) {
+            customAdapters.add(new JSONStorage.AdapterEntry<>(type, adapter));
+            return this;
+        }
+
+        public MappedStorage<K, V> build() {
+            validate();
+            return new MappedStorage<>(this);
+        }
+
+        private void validate() {
+            if (dataFolder == null) throw new IllegalStateException("Data folder is required");
+            if (fileName == null) throw new IllegalStateException("File name is required");
+            if (keyClass == null) throw new IllegalStateException("Key class is required");
+            if (valueClass == null) throw new IllegalStateException("Value class is required");
+        }
+    }
+}
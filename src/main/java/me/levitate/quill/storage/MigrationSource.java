@@ -0,0 +1,114 @@
+package me.levitate.quill.storage;
+
+import com.squareup.moshi.JsonAdapter;
+import me.levitate.quill.cache.Cache;
+import me.levitate.quill.cache.redis.RedisCache;
+import me.levitate.quill.storage.binary.BinaryCodec;
+import me.levitate.quill.storage.binary.BinaryFileReader;
+import me.levitate.quill.storage.io.JsonMapIO;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Entries read by {@link StorageMigrator}. Sources must visit entries in the same order on every run,
+ * so a resumed migration can skip what was already migrated.
+ *
+ * @param <K> Key
+ * @param <V> Value
+ */
+public interface MigrationSource<K, V> {
+    /**
+     * Visit every entry, without holding them all in memory where the backend allows it
+     * @param action The action to run for each entry
+     */
+    void forEach(BiConsumer<K, V> action) throws IOException;
+
+    /**
+     * Get the number of entries, used for progress reporting
+     * @return Number of entries, or -1 if unknown
+     */
+    default long size() {
+        return -1;
+    }
+
+    /**
+     * Read from a storage. Sharded and SQL storages stream their entries, the other backends must be loaded first.
+     */
+    static <K, V> MigrationSource<K, V> of(Storage<K, V> storage) {
+        return new MigrationSource<>() {
+            @Override
+            public void forEach(BiConsumer<K, V> action) {
+                storage.forEach(action);
+            }
+
+            @Override
+            public long size() {
+                return storage.size();
+            }
+        };
+    }
+
+    /**
+     * Read from a local cache. Keys are fetched up front, values one at a time.
+     *
+     * @throws IllegalArgumentException for a {@link RedisCache}, which only lists the keys cached locally,
+     *                                  use {@link #redis} instead
+     */
+    static <K, V> MigrationSource<K, V> of(Cache<K, V> cache) {
+        if (cache instanceof RedisCache) {
+            throw new IllegalArgumentException("Redis caches can't list every stored key, use MigrationSource.redis instead");
+        }
+        return new MigrationSource<>() {
+            @Override
+            public void forEach(BiConsumer<K, V> action) {
+                for (K key : cache.keys()) {
+                    cache.get(key).ifPresent(value -> action.accept(key, value));
+                }
+            }
+
+            @Override
+            public long size() {
+                return cache.size();
+            }
+        };
+    }
+
+    /**
+     * Read every entry stored in Redis under the cache's prefix, not only those cached locally.
+     * Keys are scanned up front and sorted, values are fetched in batches.
+     *
+     * @param keyParser Turns a Redis key, without the prefix, back into a key, such as {@code UUID::fromString}
+     * @param valueType The type the values are read as
+     */
+    static <K, V> MigrationSource<K, V> redis(RedisCache<K, V> cache, Function<String, K> keyParser, Class<V> valueType) {
+        return action -> cache.forEachStored(keyParser, valueType, action);
+    }
+
+    /**
+     * Stream a {@link JSONStorage} file straight from disk, one entry at a time, without loading the storage.
+     */
+    static <K, V> MigrationSource<K, V> jsonFile(File file, JsonAdapter<K> keyAdapter, JsonAdapter<V> valueAdapter) {
+        return action -> JsonMapIO.stream(file, keyAdapter, valueAdapter, null, action);
+    }
+
+    /**
+     * Stream a {@link BinaryStorage} file straight from disk, one record at a time, without loading the storage.
+     */
+    static <K, V> MigrationSource<K, V> binaryFile(File file, BinaryCodec<K> keyCodec, BinaryCodec<V> valueCodec) {
+        return action -> {
+            try (InputStream input = new BufferedInputStream(Files.newInputStream(file.toPath()), 65536)) {
+                BinaryFileReader reader = new BinaryFileReader(input);
+                while (reader.next()) {
+                    K key = keyCodec.read(reader.record());
+                    action.accept(key, valueCodec.read(reader.record()));
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package me.levitate.quill.storage;
+
+import me.levitate.quill.cache.Cache;
+import me.levitate.quill.cache.redis.RedisCache;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Where {@link StorageMigrator} writes entries, one batch at a time.
+ *
+ * @param <K> Key
+ * @param <V> Value
+ */
+public interface MigrationTarget<K, V> {
+    /**
+     * Write a batch of entries
+     * @param batch The entries, reused by the migrator once this returns
+     */
+    void write(Map<K, V> batch);
+
+    /**
+     * Make the written entries durable, called before each checkpoint
+     */
+    void flush();
+
+    /**
+     * Write into a storage, saving it on every flush
+     */
+    static <K, V> MigrationTarget<K, V> of(Storage<K, V> storage) {
+        return new MigrationTarget<>() {
+            @Override
+            public void write(Map<K, V> batch) {
+                batch.forEach(storage::put);
+            }
+
+            @Override
+            public void flush() {
+                storage.save();
+            }
+        };
+    }
+
+    /**
+     * Write into a cache, one batch per call. A {@link RedisCache} is written synchronously with a single pipeline,
+     * so each batch is stored in Redis before the migrator records a checkpoint, and failures stop the migration.
+     */
+    static <K, V> MigrationTarget<K, V> of(Cache<K, V> cache) {
+        if (cache instanceof RedisCache<K, V> redis) {
+            return new MigrationTarget<>() {
+                @Override
+                public void write(Map<K, V> batch) {
+                    redis.writeBatch(false, batch, Collections.emptyList());
+                }
+
+                @Override
+                public void flush() {
+                    // Every batch is acknowledged by Redis before write returns
+                }
+            };
+        }
+
+        return new MigrationTarget<>() {
+            @Override
+            public void write(Map<K, V> batch) {
+                cache.putAll(batch);
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+    }
+}
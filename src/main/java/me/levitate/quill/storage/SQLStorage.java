@@ -0,0 +1,535 @@
+package me.levitate.quill.storage;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import lombok.Getter;
+import me.levitate.quill.storage.sql.ConnectionPool;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Storage backed by an embedded SQLite database, for datasets too large to hold in memory.
+ * Entries are stored as JSON in a table keyed by the encoded key, and only read when requested.
+ * <p>
+ * Writes are buffered and flushed in batched prepared statements on save, reads see buffered writes
+ * before they are flushed. Values are detached copies, so changes must be written back with
+ * {@link #put} or {@link #update}. This class is safe to use from any thread.
+ * </p>
+ *
+ * @param <K> Key
+ * @param <V> Value
+ */
+public class SQLStorage<K, V> implements Storage<K, V> {
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    @Getter
+    private final File file;
+    @Getter
+    private final String tableName;
+    private final int batchSize;
+    private final JsonAdapter<K> keyAdapter;
+    private final JsonAdapter<V> valueAdapter;
+    private final ConnectionPool pool;
+    private final ExecutorService executor;
+
+    // Only set when the builder enabled autosave
+    private final AutoSaver autoSaver;
+    private final Object writeLock = new Object();
+
+    // Encoded key to encoded value, a null value is a pending delete
+    private final Object bufferLock = new Object();
+    private Map<String, String> pending = new LinkedHashMap<>();
+    private Map<String, String> inFlight = Collections.emptyMap();
+    private boolean pendingClear;
+    private boolean clearInFlight;
+
+    protected SQLStorage(Builder<K, V> builder) {
+        this.file = new File(builder.dataFolder, builder.fileName);
+        this.tableName = builder.tableName;
+        this.batchSize = builder.batchSize;
+
+        Moshi moshi = JSONStorage.createMoshi(builder.customAdapters);
+        this.keyAdapter = moshi.adapter(builder.keyClass);
+        this.valueAdapter = moshi.adapter(builder.valueClass);
+
+        // Create data folder if it doesn't exist
+        if (!builder.dataFolder.exists() && !builder.dataFolder.mkdirs()) {
+            throw new RuntimeException("Could not create data folder: " + builder.dataFolder);
+        }
+
+        try {
+            this.pool = new ConnectionPool("jdbc:sqlite:" + file.getAbsolutePath(), builder.poolSize);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to open database: " + file, e);
+        }
+
+        AtomicInteger threadId = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(builder.poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "Quill-SQL-" + file.getName() + "-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Flushing only touches the write buffer, so it is safe to snapshot on the save thread
+        this.autoSaver = builder.plugin != null
+                ? new AutoSaver(builder.plugin, builder.autoSaveDelay, file, () -> this::flush, true)
+                : null;
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Creates the table if it doesn't exist and discards changes that were not saved.
+     */
+    @Override
+    public void load() {
+        synchronized (bufferLock) {
+            pending = new LinkedHashMap<>();
+            pendingClear = false;
+        }
+
+        run(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS " + tableName
+                        + " (id TEXT PRIMARY KEY NOT NULL, data TEXT NOT NULL)");
+            }
+            return null;
+        }, "Failed to create table " + tableName + " in database: " + file);
+    }
+
+    /**
+     * Writes the buffered changes in a single transaction.
+     */
+    @Override
+    public void save() {
+        if (autoSaver != null) {
+            autoSaver.cancel();
+        }
+        flush();
+    }
+
+    /**
+     * Writes the buffered changes on a database thread.
+     *
+     * @return A future that completes once the changes have been written
+     */
+    public CompletableFuture<Void> saveAsync() {
+        return CompletableFuture.runAsync(this::save, executor);
+    }
+
+    /**
+     * Schedules an asynchronous save after the autosave delay.
+     * Further calls before the save runs are coalesced into that single save.
+     */
+    public void requestSave() {
+        if (autoSaver != null) {
+            autoSaver.request();
+        }
+    }
+
+    /**
+     * Writes the buffered changes and closes the database.
+     * Call this when your plugin disables.
+     */
+    @Override
+    public void close() {
+        if (autoSaver != null) {
+            autoSaver.shutdown();
+        }
+        flush();
+
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.close();
+    }
+
+    private void flush() {
+        synchronized (writeLock) {
+            Map<String, String> batch;
+            boolean clear;
+            synchronized (bufferLock) {
+                if (pending.isEmpty() && !pendingClear) return;
+
+                // Keep the batch visible to readers until it is committed
+                batch = pending;
+                clear = pendingClear;
+                inFlight = batch;
+                clearInFlight = clear;
+                pending = new LinkedHashMap<>();
+                pendingClear = false;
+            }
+
+            try {
+                run(connection -> {
+                    writeBatch(connection, batch, clear);
+                    return null;
+                }, "Failed to write data to database: " + file);
+            } catch (RuntimeException e) {
+                // Put the batch back behind anything written since, so the next save retries it
+                synchronized (bufferLock) {
+                    // A clear since then supersedes the failed batch
+                    if (!pendingClear) {
+                        batch.forEach(pending::putIfAbsent);
+                        pendingClear = clear;
+                    }
+                }
+                throw e;
+            } finally {
+                synchronized (bufferLock) {
+                    inFlight = Collections.emptyMap();
+                    clearInFlight = false;
+                }
+            }
+        }
+    }
+
+    private void writeBatch(Connection connection, Map<String, String> batch, boolean clear) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement upsert = connection.prepareStatement(
+                "INSERT OR REPLACE INTO " + tableName + " (id, data) VALUES (?, ?)");
+             PreparedStatement delete = connection.prepareStatement(
+                     "DELETE FROM " + tableName + " WHERE id = ?")) {
+            if (clear) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("DELETE FROM " + tableName);
+                }
+            }
+
+            int upserts = 0;
+            int deletes = 0;
+            for (Map.Entry<String, String> entry : batch.entrySet()) {
+                if (entry.getValue() == null) {
+                    delete.setString(1, entry.getKey());
+                    delete.addBatch();
+                    if (++deletes % batchSize == 0) delete.executeBatch();
+                } else {
+                    upsert.setString(1, entry.getKey());
+                    upsert.setString(2, entry.getValue());
+                    upsert.addBatch();
+                    if (++upserts % batchSize == 0) upsert.executeBatch();
+                }
+            }
+            upsert.executeBatch();
+            delete.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    @Override
+    public Optional<V> get(K key) {
+        String id = keyAdapter.toJson(key);
+        String data;
+        synchronized (bufferLock) {
+            if (pending.containsKey(id)) {
+                return Optional.ofNullable(decode(pending.get(id)));
+            }
+            if (pendingClear) {
+                return Optional.empty();
+            }
+            if (inFlight.containsKey(id)) {
+                return Optional.ofNullable(decode(inFlight.get(id)));
+            }
+            if (clearInFlight) {
+                return Optional.empty();
+            }
+        }
+
+        data = query(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT data FROM " + tableName + " WHERE id = ?")) {
+                statement.setString(1, id);
+                try (ResultSet result = statement.executeQuery()) {
+                    return result.next() ? result.getString(1) : null;
+                }
+            }
+        });
+        return Optional.ofNullable(decode(data));
+    }
+
+    public CompletableFuture<Optional<V>> getAsync(K key) {
+        return CompletableFuture.supplyAsync(() -> get(key), executor);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        buffer(keyAdapter.toJson(key), valueAdapter.toJson(value));
+    }
+
+    public CompletableFuture<Void> putAsync(K key, V value) {
+        return CompletableFuture.runAsync(() -> put(key, value), executor);
+    }
+
+    @Override
+    public void remove(K key) {
+        buffer(keyAdapter.toJson(key), null);
+    }
+
+    public CompletableFuture<Void> removeAsync(K key) {
+        return CompletableFuture.runAsync(() -> remove(key), executor);
+    }
+
+    /**
+     * Reads, modifies and writes back the value. Not atomic with concurrent writes to the same key.
+     */
+    @Override
+    public void update(K key, Consumer<V> consumer) {
+        get(key).ifPresent(value -> {
+            consumer.accept(value);
+            put(key, value);
+        });
+    }
+
+    /**
+     * Does nothing, values read from this storage are copies and must be written back with {@link #put}.
+     */
+    @Override
+    public void markDirty(K key) {
+    }
+
+    @Override
+    public boolean isDirty() {
+        synchronized (bufferLock) {
+            return !pending.isEmpty() || pendingClear;
+        }
+    }
+
+    /**
+     * Gets a page of entries ordered by their encoded key. Buffered changes are saved first.
+     *
+     * @param offset How many entries to skip
+     * @param limit The maximum number of entries to return
+     */
+    public Map<K, V> page(int offset, int limit) {
+        flush();
+        return query(connection -> {
+            Map<K, V> page = new LinkedHashMap<>();
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, data FROM " + tableName + " ORDER BY id LIMIT ? OFFSET ?")) {
+                statement.setInt(1, limit);
+                statement.setInt(2, offset);
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        page.put(decodeKey(result.getString(1)), decode(result.getString(2)));
+                    }
+                }
+            }
+            return page;
+        });
+    }
+
+    public CompletableFuture<Map<K, V>> pageAsync(int offset, int limit) {
+        return CompletableFuture.supplyAsync(() -> page(offset, limit), executor);
+    }
+
+    /**
+     * Streams every entry from the database in key order, holding one row at a time. Buffered changes are saved first.
+     */
+    @Override
+    public void forEach(BiConsumer<K, V> action) {
+        flush();
+        query(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT id, data FROM " + tableName + " ORDER BY id")) {
+                statement.setFetchSize(batchSize);
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        action.accept(decodeKey(result.getString(1)), decode(result.getString(2)));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public int size() {
+        flush();
+        return query(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM " + tableName)) {
+                return result.next() ? result.getInt(1) : 0;
+            }
+        });
+    }
+
+    /**
+     * Gets all values. This reads the whole table, prefer {@link #page} or {@link #forEach} for large datasets.
+     */
+    @Override
+    public Collection<V> values() {
+        List<V> values = new ArrayList<>();
+        forEach((key, value) -> values.add(value));
+        return values;
+    }
+
+    /**
+     * Gets all keys. This reads the whole table, prefer {@link #page} or {@link #forEach} for large datasets.
+     */
+    @Override
+    public Set<K> keys() {
+        Set<K> keys = new HashSet<>();
+        forEach((key, value) -> keys.add(key));
+        return keys;
+    }
+
+    @Override
+    public Map<K, V> getAll() {
+        Map<K, V> all = new HashMap<>();
+        forEach(all::put);
+        return all;
+    }
+
+    @Override
+    public void clear() {
+        synchronized (bufferLock) {
+            pending = new LinkedHashMap<>();
+            pendingClear = true;
+        }
+        requestSave();
+    }
+
+    private void buffer(String id, String data) {
+        synchronized (bufferLock) {
+            pending.put(id, data);
+        }
+        requestSave();
+    }
+
+    private V decode(String data) {
+        if (data == null) return null;
+
+        try {
+            return valueAdapter.fromJson(data);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to decode value from database: " + file, e);
+        }
+    }
+
+    private K decodeKey(String id) {
+        try {
+            return keyAdapter.fromJson(id);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to decode key from database: " + file, e);
+        }
+    }
+
+    private <T> T query(ConnectionPool.SQLFunction<Connection, T> work) {
+        return run(work, "Failed to read data from database: " + file);
+    }
+
+    private <T> T run(ConnectionPool.SQLFunction<Connection, T> work, String error) {
+        try {
+            return pool.withConnection(work);
+        } catch (SQLException e) {
+            throw new RuntimeException(error, e);
+        }
+    }
+
+    public static class Builder<K, V> {
+        private final List<JSONStorage.AdapterEntry<?>> customAdapters = new ArrayList<>();
+        private File dataFolder;
+        private String fileName;
+        private String tableName = "storage";
+        private Class<K> keyClass;
+        private Class<V> valueClass;
+        private Plugin plugin;
+        private long autoSaveDelay;
+        private int poolSize = 4;
+        private int batchSize = 500;
+
+        public Builder<K, V> dataFolder(File dataFolder) {
+            this.dataFolder = dataFolder;
+            return this;
+        }
+
+        public Builder<K, V> fileName(String fileName) {
+            this.fileName = fileName;
+            return this;
+        }
+
+        public Builder<K, V> tableName(String tableName) {
+            this.tableName = tableName;
+            return this;
+        }
+
+        public Builder<K, V> keyClass(Class<K> keyClass) {
+            this.keyClass = keyClass;
+            return this;
+        }
+
+        public Builder<K, V> valueClass(Class<V> valueClass) {
+            this.valueClass = valueClass;
+            return this;
+        }
+
+        /**
+         * Enables debounced autosaving, see {@link JSONStorage.Builder#autoSave(Plugin, long)}.
+         */
+        public Builder<K, V> autoSave(Plugin plugin, long delayTicks) {
+            this.plugin = plugin;
+            this.autoSaveDelay = delayTicks;
+            return this;
+        }
+
+        /**
+         * Sets how many connections, and threads for the async methods, the storage uses. Defaults to 4.
+         */
+        public Builder<K, V> poolSize(int poolSize) {
+            this.poolSize = poolSize;
+            return this;
+        }
+
+        /**
+         * Sets how many rows are sent to the database per batch when saving. Defaults to 500.
+         */
+        public Builder<K, V> batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public <T> Builder<K, V> addAdapter(Type type, JsonAdapter<T> adapter) {
+            customAdapters.add(new JSONStorage.AdapterEntry<>(type, adapter));
+            return this;
+        }
+
+        public SQLStorage<K, V> build() {
+            validate();
+            return new SQLStorage<>(this);
+        }
+
+        private void validate() {
+            if (dataFolder == null) throw new IllegalStateException("Data folder is required");
+            if (fileName == null) throw new IllegalStateException("File name is required");
+            if (keyClass == null) throw new IllegalStateException("Key class is required");
+            if (valueClass == null) throw new IllegalStateException("Value class is required");
+            if (!TABLE_NAME.matcher(tableName).matches()) throw new IllegalStateException("Invalid table name: " + tableName);
+            if (poolSize <= 0) throw new IllegalStateException("Pool size must be positive");
+            if (batchSize <= 0) throw new IllegalStateException("Batch size must be positive");
+            if (plugin != null && autoSaveDelay < 0) throw new IllegalStateException("Autosave delay cannot be negative");
+        }
+    }
+}
@@ -0,0 +1,526 @@
+package me.levitate.quill.storage;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonClass;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import lombok.Getter;
+import me.levitate.quill.storage.intern.InterningAdapterFactory;
+import me.levitate.quill.storage.io.AtomicFile;
+import me.levitate.quill.storage.io.JsonMapIO;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * JSON storage that partitions its keys into a fixed number of shard files.
+ * Shards are loaded on first access, evicted when cold, and only written back when they changed,
+ * so large datasets never have to be held in memory or rewritten all at once.
+ *
+ * @param <K> Key
+ * @param <V> Value
+ */
+public class ShardedJSONStorage<K, V> implements Storage<K, V> {
+    private static final String INDEX_FILE = "index.json";
+
+    @Getter
+    private final File directory;
+    @Getter
+    private final int shardCount;
+    private final int maxLoadedShards;
+    private final boolean fsync;
+
+    private final JsonAdapter<K> keyAdapter;
+    private final JsonAdapter<V> valueAdapter;
+    private final JsonAdapter<Map<K, V>> shardAdapter;
+    private final JsonAdapter<ShardIndex> indexAdapter;
+
+    private final List<Shard> shards;
+    // Loaded shards in access order, the eldest entry is the coldest shard
+    private final LinkedHashMap<Integer, Shard> loadedShards = new LinkedHashMap<>(16, 0.75f, true);
+    private boolean indexDirty;
+    private final ChangeTracker<K> changes = new ChangeTracker<>();
+
+    protected ShardedJSONStorage(Builder<K, V> builder) {
+        this.directory = new File(builder.dataFolder, builder.directoryName);
+        this.shardCount = builder.shardCount;
+        this.maxLoadedShards = builder.maxLoadedShards;
+        this.fsync = builder.fsync;
+
+        Moshi moshi = JSONStorage.createMoshi(builder.customAdapters, builder.interning);
+        this.keyAdapter = moshi.adapter(builder.keyClass);
+        this.valueAdapter = moshi.adapter(builder.valueClass);
+        this.shardAdapter = moshi.adapter(Types.newParameterizedType(Map.class, builder.keyClass, builder.valueClass));
+        this.indexAdapter = moshi.adapter(ShardIndex.class);
+
+        this.shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new Shard(i, new File(directory, "shard-" + i + ".json")));
+        }
+
+        // Create the shard directory if it doesn't exist
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new RuntimeException("Could not create data folder: " + directory);
+        }
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Reads the on-disk index. Shards themselves are only read once one of their keys is accessed.
+     */
+    @Override
+    public synchronized void load() {
+        loadedShards.values().forEach(shard -> shard.data = null);
+        loadedShards.clear();
+
+        File indexFile = AtomicFile.readable(new File(directory, INDEX_FILE));
+        if (indexFile == null) {
+            // No index yet, every shard is counted the first time it is loaded
+            for (Shard shard : shards) {
+                shard.size = shard.file.exists() ? -1 : 0;
+            }
+            return;
+        }
+
+        try {
+            ShardIndex index = indexAdapter.fromJson(new String(Files.readAllBytes(indexFile.toPath())));
+            if (index == null || index.shards != shardCount || index.counts == null || index.counts.length != shardCount) {
+                throw new IllegalStateException("Shard count of " + directory + " does not match the configured count of " + shardCount);
+            }
+
+            for (int i = 0; i < shardCount; i++) {
+                shards.get(i).size = index.counts[i];
+            }
+            changes.reset();
+        } catch (IOException | JsonDataException e) {
+            throw new RuntimeException("Failed to read shard index: " + indexFile, e);
+        }
+    }
+
+    /**
+     * Writes every dirty shard and the index. Unchanged shards are not touched,
+     * and nothing is written at all when no key changed since the last save.
+     */
+    @Override
+    public synchronized void save() {
+        if (!changes.isDirty() && !indexDirty) return;
+
+        ChangeTracker.Pending<K> pending = changes.begin();
+        try {
+            for (Shard shard : loadedShards.values()) {
+                writeShard(shard);
+            }
+            writeIndex();
+            changes.complete(pending);
+        } catch (RuntimeException e) {
+            changes.fail(pending);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes back and unloads every shard. Call this when your plugin disables.
+     */
+    @Override
+    public synchronized void close() {
+        save();
+        evictAll();
+    }
+
+    /**
+     * Flags a key as changed, for values that were modified in place without {@link #update}.
+     */
+    @Override
+    public synchronized void markDirty(K key) {
+        Shard shard = shardFor(key);
+        shard.dirty = true;
+        changes.markChanged(key);
+    }
+
+    @Override
+    public boolean isDirty() {
+        return changes.isDirty();
+    }
+
+    /**
+     * Gets the number of changes made since the last save.
+     */
+    public long getPendingChanges() {
+        return changes.getPendingChanges();
+    }
+
+    public long getVersion() {
+        return changes.getVersion();
+    }
+
+    public long getSavedVersion() {
+        return changes.getSavedVersion();
+    }
+
+    public Set<K> getDirtyKeys() {
+        return changes.getDirtyKeys();
+    }
+
+    @Override
+    public synchronized Optional<V> get(K key) {
+        return Optional.ofNullable(shardFor(key).data.get(key));
+    }
+
+    @Override
+    public synchronized boolean containsKey(K key) {
+        return shardFor(key).data.containsKey(key);
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        Shard shard = shardFor(key);
+        shard.data.put(key, value);
+        markDirty(shard, key);
+    }
+
+    @Override
+    public synchronized void remove(K key) {
+        Shard shard = shardFor(key);
+        if (shard.data.remove(key) != null) {
+            markDirty(shard, key);
+        }
+    }
+
+    @Override
+    public synchronized void update(K key, Consumer<V> consumer) {
+        Shard shard = shardFor(key);
+        V value = shard.data.get(key);
+        if (value != null) {
+            consumer.accept(value);
+            markDirty(shard, key);
+        }
+    }
+
+    /**
+     * Gets the number of entries, without loading any shard that is covered by the index.
+     */
+    @Override
+    public synchronized int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            if (shard.size < 0) {
+                // Counted like forEach, so the shard is tracked while loaded and dropped again afterwards
+                touch(shard);
+                if (!shard.dirty) {
+                    unload(shard);
+                }
+            }
+            size += shard.size;
+        }
+        return size;
+    }
+
+    /**
+     * Gets all values. This loads every shard, prefer {@link #forEach} for large datasets.
+     */
+    @Override
+    public synchronized Collection<V> values() {
+        List<V> values = new ArrayList<>();
+        forEach((key, value) -> values.add(value));
+        return values;
+    }
+
+    /**
+     * Gets all keys. This loads every shard, prefer {@link #forEach} for large datasets.
+     */
+    @Override
+    public synchronized Set<K> keys() {
+        Set<K> keys = new HashSet<>();
+        forEach((key, value) -> keys.add(key));
+        return keys;
+    }
+
+    @Override
+    public synchronized Map<K, V> getAll() {
+        Map<K, V> all = new HashMap<>();
+        forEach(all::put);
+        return all;
+    }
+
+    /**
+     * Visits every entry one shard at a time. Shards that were not loaded before are
+     * evicted again right away, so memory stays bounded by the loaded shard limit.
+     */
+    @Override
+    public synchronized void forEach(BiConsumer<K, V> action) {
+        for (Shard shard : shards) {
+            if (shard.size == 0 && shard.data == null) continue;
+
+            boolean wasLoaded = shard.data != null;
+            touch(shard).data.forEach(action);
+            if (!wasLoaded && !shard.dirty) {
+                unload(shard);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (Shard shard : shards) {
+            shard.data = new HashMap<>();
+            shard.size = 0;
+            shard.dirty = true;
+            loadedShards.put(shard.id, shard);
+        }
+        indexDirty = true;
+        changes.markAllChanged();
+        save();
+        evictAll();
+    }
+
+    /**
+     * Writes back and unloads shards that were not accessed within the given time.
+     *
+     * @param idleMillis How long a shard may go unused before it is evicted
+     */
+    public synchronized void evictIdle(long idleMillis) {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        new ArrayList<>(loadedShards.values()).forEach(shard -> {
+            if (shard.lastAccess < cutoff) {
+                evict(shard);
+            }
+        });
+        writeIndex();
+    }
+
+    /**
+     * Writes back and unloads every loaded shard.
+     */
+    public synchronized void evictAll() {
+        new ArrayList<>(loadedShards.values()).forEach(this::evict);
+        writeIndex();
+    }
+
+    /**
+     * Gets how many shards are currently held in memory.
+     */
+    public synchronized int getLoadedShardCount() {
+        return loadedShards.size();
+    }
+
+    private Shard shardFor(K key) {
+        // Hash the encoded key, so shard placement is stable across restarts for any key type
+        int id = Math.floorMod(keyAdapter.toJson(key).hashCode(), shardCount);
+        return touch(shards.get(id));
+    }
+
+    private Shard touch(Shard shard) {
+        shard.lastAccess = System.currentTimeMillis();
+        if (shard.data == null) {
+            load(shard);
+            loadedShards.put(shard.id, shard);
+            evictOverflow();
+        } else {
+            loadedShards.get(shard.id);
+        }
+        return shard;
+    }
+
+    private void load(Shard shard) {
+        Map<K, V> data = new HashMap<>();
+        File source = AtomicFile.readable(shard.file);
+        if (source != null) {
+            try {
+                JsonMapIO.read(source, keyAdapter, valueAdapter, null, data);
+            } catch (IOException | JsonDataException e) {
+                throw new RuntimeException("Failed to read data from json file: " + source, e);
+            }
+        }
+
+        if (shard.size != data.size()) {
+            indexDirty = true;
+        }
+        shard.data = data;
+        shard.size = data.size();
+    }
+
+    private void evictOverflow() {
+        Iterator<Shard> iterator = loadedShards.values().iterator();
+        while (loadedShards.size() > maxLoadedShards && iterator.hasNext()) {
+            Shard eldest = iterator.next();
+            writeShard(eldest);
+            eldest.data = null;
+            iterator.remove();
+        }
+    }
+
+    private void evict(Shard shard) {
+        writeShard(shard);
+        unload(shard);
+    }
+
+    private void unload(Shard shard) {
+        shard.data = null;
+        loadedShards.remove(shard.id);
+    }
+
+    private void markDirty(Shard shard, K key) {
+        changes.markChanged(key);
+        shard.dirty = true;
+        if (shard.size != shard.data.size()) {
+            shard.size = shard.data.size();
+            indexDirty = true;
+        }
+    }
+
+    private void writeShard(Shard shard) {
+        if (!shard.dirty || shard.data == null) return;
+
+        try {
+            if (shard.data.isEmpty()) {
+                Files.deleteIfExists(shard.file.toPath());
+                Files.deleteIfExists(AtomicFile.backupOf(shard.file).toPath());
+            } else {
+                JsonMapIO.write(shard.file, fsync, shardAdapter, shard.data);
+            }
+            shard.dirty = false;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write data to json file: " + shard.file, e);
+        }
+    }
+
+    private void writeIndex() {
+        if (!indexDirty) return;
+
+        ShardIndex index = new ShardIndex();
+        index.shards = shardCount;
+        index.counts = new int[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            // Unknown counts are left out of the index until the shard has been loaded once
+            if (shards.get(i).size < 0) return;
+            index.counts[i] = shards.get(i).size;
+        }
+
+        try {
+            AtomicFile.write(new File(directory, INDEX_FILE), fsync, sink -> indexAdapter.toJson(sink, index));
+            indexDirty = false;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write shard index: " + directory, e);
+        }
+    }
+
+    private class Shard {
+        final int id;
+        final File file;
+        Map<K, V> data;
+        // Entry count, -1 when unknown until the shard is loaded
+        int size = -1;
+        boolean dirty;
+        long lastAccess;
+
+        Shard(int id, File file) {
+            this.id = id;
+            this.file = file;
+        }
+    }
+
+    @JsonClass(generateAdapter = true)
+    static class ShardIndex {
+        int shards;
+        int[] counts;
+    }
+
+    public static class Builder<K, V> {
+        private final List<JSONStorage.AdapterEntry<?>> customAdapters = new ArrayList<>();
+        private File dataFolder;
+        private String directoryName;
+        private Class<K> keyClass;
+        private Class<V> valueClass;
+        private int shardCount = 64;
+        private int maxLoadedShards = 16;
+        private boolean fsync = true;
+        private InterningAdapterFactory interning;
+
+        public Builder<K, V> dataFolder(File dataFolder) {
+            this.dataFolder = dataFolder;
+            return this;
+        }
+
+        /**
+         * Sets the directory, relative to the data folder, that holds the shard files.
+         */
+        public Builder<K, V> directoryName(String directoryName) {
+            this.directoryName = directoryName;
+            return this;
+        }
+
+        public Builder<K, V> keyClass(Class<K> keyClass) {
+            this.keyClass = keyClass;
+            return this;
+        }
+
+        public Builder<K, V> valueClass(Class<V> valueClass) {
+            this.valueClass = valueClass;
+            return this;
+        }
+
+        /**
+         * Sets how many shard files the keys are partitioned into. This cannot change once data was saved.
+         */
+        public Builder<K, V> shards(int shardCount) {
+            this.shardCount = shardCount;
+            return this;
+        }
+
+        /**
+         * Sets how many shards may be held in memory at once before the coldest one is evicted.
+         */
+        public Builder<K, V> maxLoadedShards(int maxLoadedShards) {
+            this.maxLoadedShards = maxLoadedShards;
+            return this;
+        }
+
+        public Builder<K, V> fsync(boolean fsync) {
+            this.fsync = fsync;
+            return this;
+        }
+
+        public <T> Builder<K, V> addAdapter(Type type, JsonAdapter<T> adapter) {
+            customAdapters.add(new JSONStorage.AdapterEntry<>(type, adapter));
+            return this;
+        }
+
+        /**
+         * Deduplicates strings, UUIDs and locations while loading shards, see {@link InterningAdapterFactory}.
+         * Pools are shared by every shard, so values stay deduplicated across them.
+         *
+         * @param poolSize The maximum amount of pooled values per type
+         */
+        public Builder<K, V> intern(int poolSize) {
+            return intern(new InterningAdapterFactory(poolSize));
+        }
+
+        public Builder<K, V> intern(InterningAdapterFactory interning) {
+            this.interning = interning;
+            return this;
+        }
+
+        public ShardedJSONStorage<K, V> build() {
+            validate();
+            return new ShardedJSONStorage<>(this);
+        }
+
+        private void validate() {
+            if (dataFolder == null) throw new IllegalStateException("Data folder is required");
+            if (directoryName == null) throw new IllegalStateException("Directory name is required");
+            if (keyClass == null) throw new IllegalStateException("Key class is required");
+            if (valueClass == null) throw new IllegalStateException("Value class is required");
+            if (shardCount < 1) throw new IllegalStateException("Shard count must be at least 1");
+            if (maxLoadedShards < 1) throw new IllegalStateException("Max loaded shards must be at least 1");
+        }
+    }
+}
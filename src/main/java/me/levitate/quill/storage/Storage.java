@@ -0,0 +1,125 @@
+package me.levitate.quill.storage;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Common API of the storage backends, so plugins can switch backends through {@link StorageBuilder}.
+ *
+ * @param <K> Key
+ * @param <V> Value
+ */
+public interface Storage<K, V> {
+    /**
+     * Create a builder that picks the backend from a {@link StorageType}
+     */
+    static <K, V> StorageBuilder<K, V> builder() {
+        return new StorageBuilder<>();
+    }
+
+    /**
+     * Load the data from disk
+     */
+    void load();
+
+    /**
+     * Write pending changes to disk
+     */
+    void save();
+
+    /**
+     * Write pending changes and release the resources of the storage
+     */
+    void close();
+
+    /**
+     * Get a value from storage
+     * @param key The key
+     * @return Optional containing value if present
+     */
+    Optional<V> get(K key);
+
+    /**
+     * Put a value in storage
+     * @param key The key
+     * @param value The value
+     */
+    void put(K key, V value);
+
+    /**
+     * Remove a value from storage
+     * @param key The key
+     */
+    void remove(K key);
+
+    /**
+     * Modify a stored value in place, does nothing if the key is absent
+     * @param key The key
+     * @param consumer The modification
+     */
+    void update(K key, Consumer<V> consumer);
+
+    /**
+     * Flag a value that was modified in place, so the next save writes it
+     * @param key The key
+     */
+    void markDirty(K key);
+
+    /**
+     * Check whether there are changes that were not saved yet
+     * @return true if there are unsaved changes
+     */
+    boolean isDirty();
+
+    /**
+     * Get all values in storage
+     * @return Collection of values
+     */
+    Collection<V> values();
+
+    /**
+     * Get all keys in storage
+     * @return Set of keys
+     */
+    Set<K> keys();
+
+    /**
+     * Get a copy of all entries in storage
+     * @return Map of all entries
+     */
+    Map<K, V> getAll();
+
+    /**
+     * Clear all entries from storage
+     */
+    void clear();
+
+    /**
+     * Check if key exists in storage
+     * @param key The key
+     * @return true if key exists
+     */
+    default boolean containsKey(K key) {
+        return get(key).isPresent();
+    }
+
+    /**
+     * Get the number of entries in storage
+     * @return Number of entries
+     */
+    default int size() {
+        return keys().size();
+    }
+
+    /**
+     * Visit every entry in storage. Backends that don't hold all data in memory override this to stream entries.
+     * @param action The action to run for each entry
+     */
+    default void forEach(BiConsumer<K, V> action) {
+        getAll().forEach(action);
+    }
+}
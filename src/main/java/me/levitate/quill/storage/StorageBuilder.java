@@ -0,0 +1,104 @@
+package me.levitate.quill.storage;
+
+import com.squareup.moshi.JsonAdapter;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds a {@link Storage} for the chosen {@link StorageType}, with the options all backends share.
+ * Switching backends, for example from a config value, only changes the type.
+ *
+ * @param <K> Key
+ * @param <V> Value
+ */
+public class StorageBuilder<K, V> {
+    private final Map<Type, JsonAdapter<?>> customAdapters = new LinkedHashMap<>();
+    private StorageType type = StorageType.JSON;
+    private File dataFolder;
+    private String name;
+    private Class<K> keyClass;
+    private Class<V> valueClass;
+    private Plugin plugin;
+    private long autoSaveDelay;
+
+    public StorageBuilder<K, V> type(StorageType type) {
+        this.type = type;
+        return this;
+    }
+
+    public StorageBuilder<K, V> dataFolder(File dataFolder) {
+        this.dataFolder = dataFolder;
+        return this;
+    }
+
+    /**
+     * Sets the name of the storage. Backends add their own file extension, and the sharded backend uses it as directory name.
+     */
+    public StorageBuilder<K, V> name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public StorageBuilder<K, V> keyClass(Class<K> keyClass) {
+        this.keyClass = keyClass;
+        return this;
+    }
+
+    public StorageBuilder<K, V> valueClass(Class<V> valueClass) {
+        this.valueClass = valueClass;
+        return this;
+    }
+
+    /**
+     * Enables debounced autosaving on the backends that support it. The sharded backend saves when shards are evicted instead.
+     */
+    public StorageBuilder<K, V> autoSave(Plugin plugin, long delayTicks) {
+        this.plugin = plugin;
+        this.autoSaveDelay = delayTicks;
+        return this;
+    }
+
+    public <T> StorageBuilder<K, V> addAdapter(Type type, JsonAdapter<T> adapter) {
+        customAdapters.put(type, adapter);
+        return this;
+    }
+
+    public Storage<K, V> build() {
+        if (type == null) throw new IllegalStateException("Storage type is required");
+        if (name == null) throw new IllegalStateException("Name is required");
+
+        return switch (type) {
+            case JSON -> {
+                JSONStorage.Builder<K, V> builder = JSONStorage.<K, V>builder()
+                        .dataFolder(dataFolder).fileName(name + ".json").keyClass(keyClass).valueClass(valueClass);
+                if (plugin != null) builder.autoSave(plugin, autoSaveDelay);
+                customAdapters.forEach(builder::addAdapter);
+                yield builder.build();
+            }
+            case BINARY -> {
+                BinaryStorage.Builder<K, V> builder = BinaryStorage.<K, V>builder()
+                        .dataFolder(dataFolder).fileName(name + ".bin").keyClass(keyClass).valueClass(valueClass);
+                if (plugin != null) builder.autoSave(plugin, autoSaveDelay);
+                customAdapters.forEach(builder::addAdapter);
+                yield builder.build();
+            }
+            case SHARDED_JSON -> {
+                ShardedJSONStorage.Builder<K, V> builder = ShardedJSONStorage.<K, V>builder()
+                        .dataFolder(dataFolder).directoryName(name).keyClass(keyClass).valueClass(valueClass);
+                customAdapters.forEach(builder::addAdapter);
+                yield builder.build();
+            }
+            case SQLITE -> {
+                SQLStorage.Builder<K, V> builder = SQLStorage.<K, V>builder()
+                        .dataFolder(dataFolder).fileName(name + ".db").keyClass(keyClass).valueClass(valueClass);
+                if (plugin != null) builder.autoSave(plugin, autoSaveDelay);
+                customAdapters.forEach(builder::addAdapter);
+                yield builder.build();
+            }
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package me.levitate.quill.storage;
+
+import lombok.Getter;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A secondary index over storage values, maintained incrementally as entries change.
+ * Equality lookups are always supported, range lookups require a sorted index.
+ *
+ * @param <K> Key
+ * @param <V> Value
+ */
+public class StorageIndex<K, V> {
+    @Getter
+    private final String name;
+    @Getter
+    private final boolean sorted;
+    private final Function<V, ?> extractor;
+    private final Map<Object, Set<K>> entries;
+    private final Map<K, Object> indexedValues = new HashMap<>();
+
+    StorageIndex(String name, Function<V, ?> extractor, boolean sorted) {
+        this.name = name;
+        this.extractor = extractor;
+        this.sorted = sorted;
+        this.entries = sorted ? new TreeMap<>() : new HashMap<>();
+    }
+
+    /**
+     * Gets the keys whose indexed value equals the given value.
+     */
+    public synchronized Set<K> find(Object value) {
+        Set<K> keys = entries.get(value);
+        return keys == null ? Collections.emptySet() : new HashSet<>(keys);
+    }
+
+    /**
+     * Gets the keys whose indexed value lies between the bounds, both inclusive.
+     *
+     * @param from The lower bound, or null for no lower bound
+     * @param to The upper bound, or null for no upper bound
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized Set<K> range(Object from, Object to) {
+        if (!sorted) {
+            throw new UnsupportedOperationException("Index " + name + " is not sorted");
+        }
+
+        NavigableMap<Object, Set<K>> sortedEntries = (NavigableMap<Object, Set<K>>) entries;
+        NavigableMap<Object, Set<K>> view;
+        if (from != null && to != null) {
+            view = sortedEntries.subMap(from, true, to, true);
+        } else if (from != null) {
+            view = sortedEntries.tailMap(from, true);
+        } else if (to != null) {
+            view = sortedEntries.headMap(to, true);
+        } else {
+            view = sortedEntries;
+        }
+
+        Set<K> keys = new HashSet<>();
+        view.values().forEach(keys::addAll);
+        return keys;
+    }
+
+    /**
+     * Gets every distinct indexed value.
+     */
+    public synchronized Set<Object> values() {
+        return sorted ? new LinkedHashSet<>(entries.keySet()) : new HashSet<>(entries.keySet());
+    }
+
+    /**
+     * Re-reads the key's current value and moves it to its new position in the index.
+     *
+     * @param lookup Gets the current value of a key, or null if it was removed
+     */
+    synchronized void refresh(K key, Function<K, V> lookup) {
+        remove(key);
+
+        V value = lookup.apply(key);
+        if (value == null) return;
+
+        Object indexed = extractor.apply(value);
+        if (indexed == null) return;
+
+        entries.computeIfAbsent(indexed, k -> new HashSet<>()).add(key);
+        indexedValues.put(key, indexed);
+    }
+
+    synchronized void rebuild(Map<K, V> data) {
+        clear();
+        data.forEach((key, value) -> refresh(key, k -> value));
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        indexedValues.clear();
+    }
+
+    private void remove(K key) {
+        Object previous = indexedValues.remove(key);
+        if (previous == null) return;
+
+        Set<K> keys = entries.get(previous);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                entries.remove(previous);
+            }
+        }
+    }
+}
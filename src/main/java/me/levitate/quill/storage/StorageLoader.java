@@ -0,0 +1,216 @@
+package me.levitate.quill.storage;
+
+import me.levitate.quill.injection.annotation.Inject;
+import me.levitate.quill.injection.annotation.Module;
+import me.levitate.quill.injection.annotation.PreDestroy;
+import me.levitate.quill.injection.exception.DependencyException;
+import me.levitate.quill.logger.QuillLogger;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads storages and configs in parallel when the plugin enables, instead of one after the other on the main thread.
+ * <p>
+ * Loads are registered by name from {@code QuillPlugin#registerStorages}, and may depend on other loads,
+ * which then complete first. They run on a small pool while the modules are registered, and modules annotated
+ * with {@link me.levitate.quill.injection.annotation.RequiresData} wait for the loads they name before they are constructed.
+ * Every load has completed before {@code onPluginEnable} runs.
+ * </p>
+ */
+@Module
+public class StorageLoader {
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+
+    private final Map<String, LoadTask> tasks = new LinkedHashMap<>();
+    private int parallelism = Math.max(2, Math.min(Runtime.getRuntime().availableProcessors(), 4));
+    private ExecutorService executor;
+    private boolean started;
+
+    @Inject
+    private QuillLogger logger;
+
+    /**
+     * Registers a storage to be loaded.
+     *
+     * @param name A unique name, used by dependencies and {@link me.levitate.quill.injection.annotation.RequiresData}
+     * @param storage The storage to load
+     * @param dependsOn Names of loads that must complete first
+     */
+    public StorageLoader register(String name, Storage<?, ?> storage, String... dependsOn) {
+        return register(name, storage::load, dependsOn);
+    }
+
+    /**
+     * Registers any loading work, such as loading a config.
+     *
+     * @param name A unique name, used by dependencies and {@link me.levitate.quill.injection.annotation.RequiresData}
+     * @param loader Loads the data, on a loader thread
+     * @param dependsOn Names of loads that must complete first
+     */
+    public synchronized StorageLoader register(String name, Runnable loader, String... dependsOn) {
+        if (started) throw new IllegalStateException("Loads cannot be registered after loading started: " + name);
+        if (tasks.containsKey(name)) throw new IllegalStateException("Duplicate load name: " + name);
+
+        tasks.put(name, new LoadTask(name, loader, List.of(dependsOn)));
+        return this;
+    }
+
+    /**
+     * Sets how many loads may run at once. Defaults to the amount of processors, between 2 and 4.
+     */
+    public synchronized void setParallelism(int parallelism) {
+        if (parallelism <= 0) throw new IllegalArgumentException("Parallelism must be positive");
+        if (started) throw new IllegalStateException("Parallelism cannot change after loading started");
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Starts every registered load, each one as soon as its dependencies have completed.
+     * A load whose dependency failed fails as well without running.
+     */
+    public synchronized void start() {
+        if (started) return;
+        List<LoadTask> order = sortByDependencies();
+        started = true;
+        if (tasks.isEmpty()) return;
+
+        executor = Executors.newFixedThreadPool(Math.min(parallelism, tasks.size()), runnable -> {
+            Thread thread = new Thread(runnable, "Quill-StorageLoader-" + THREAD_ID.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (LoadTask task : order) {
+            CompletableFuture<?>[] dependencies = task.dependsOn.stream()
+                    .map(dependency -> tasks.get(dependency).future)
+                    .toArray(CompletableFuture[]::new);
+
+            CompletableFuture.allOf(dependencies).thenRunAsync(task::run, executor).whenComplete((result, throwable) -> {
+                if (throwable == null) {
+                    task.future.complete(task.millis);
+                } else {
+                    task.future.completeExceptionally(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+                }
+            });
+        }
+
+        // The pool shuts down once every load has completed
+        CompletableFuture.allOf(tasks.values().stream().map(task -> task.future).toArray(CompletableFuture[]::new))
+                .whenComplete((result, throwable) -> executor.shutdown());
+    }
+
+    /**
+     * Blocks until the named loads have completed.
+     *
+     * @throws DependencyException If a load is unknown or failed
+     */
+    public void await(String... names) {
+        for (String name : names) {
+            LoadTask task;
+            synchronized (this) {
+                task = tasks.get(name);
+                if (task == null) throw new DependencyException("Unknown data load: " + name);
+                if (!started) throw new DependencyException("Data loading has not started: " + name);
+            }
+
+            try {
+                task.future.join();
+            } catch (CompletionException | CancellationException e) {
+                throw new DependencyException("Failed to load data: " + name, e.getCause() != null ? e.getCause() : e);
+            }
+        }
+    }
+
+    /**
+     * Blocks until every load has completed, and logs how long each one took.
+     *
+     * @return How long each load took, in milliseconds, by name
+     * @throws DependencyException If any load failed, after every load has completed
+     */
+    public Map<String, Long> awaitAll() {
+        List<LoadTask> all;
+        synchronized (this) {
+            all = new ArrayList<>(tasks.values());
+        }
+
+        Map<String, Long> times = new LinkedHashMap<>();
+        List<String> failed = new ArrayList<>();
+        DependencyException failure = null;
+        for (LoadTask task : all) {
+            try {
+                await(task.name);
+                times.put(task.name, task.millis);
+                logger.info("Loaded " + task.name + " in " + task.millis + "ms");
+            } catch (DependencyException e) {
+                failed.add(task.name);
+                if (failure == null) failure = e;
+            }
+        }
+
+        if (failure != null) {
+            throw new DependencyException("Failed to load data: " + String.join(", ", failed), failure.getCause());
+        }
+        return times;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Orders the loads so each one comes after its dependencies, rejecting unknown dependencies and cycles.
+     */
+    private List<LoadTask> sortByDependencies() {
+        List<LoadTask> order = new ArrayList<>(tasks.size());
+        Set<String> visited = new HashSet<>();
+        Set<String> visiting = new LinkedHashSet<>();
+        for (LoadTask task : tasks.values()) {
+            visit(task, visited, visiting, order);
+        }
+        return order;
+    }
+
+    private void visit(LoadTask task, Set<String> visited, Set<String> visiting, List<LoadTask> order) {
+        if (visited.contains(task.name)) return;
+        if (!visiting.add(task.name)) {
+            throw new IllegalStateException("Circular data dependency: " + String.join(" -> ", visiting) + " -> " + task.name);
+        }
+
+        for (String dependency : task.dependsOn) {
+            LoadTask required = tasks.get(dependency);
+            if (required == null) {
+                throw new IllegalStateException("Unknown data dependency of " + task.name + ": " + dependency);
+            }
+            visit(required, visited, visiting, order);
+        }
+
+        visiting.remove(task.name);
+        visited.add(task.name);
+        order.add(task);
+    }
+
+    private static class LoadTask {
+        private final String name;
+        private final Runnable loader;
+        private final List<String> dependsOn;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+        private volatile long millis;
+
+        private LoadTask(String name, Runnable loader, List<String> dependsOn) {
+            this.name = name;
+            this.loader = loader;
+            this.dependsOn = dependsOn;
+        }
+
+        private void run() {
+            long start = System.nanoTime();
+            loader.run();
+            millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package me.levitate.quill.storage;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonClass;
+import com.squareup.moshi.Moshi;
+import me.levitate.quill.storage.io.AtomicFile;
+import okio.BufferedSource;
+import okio.Okio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Moves every entry from one storage backend to another in bounded batches, so memory use
+ * does not depend on the size of the dataset when the source streams its entries.
+ * <p>
+ * Each entry is fingerprinted with a CRC32 of its JSON encoding. The fingerprints are summed,
+ * which makes the checksum independent of entry order, and compared against the target after
+ * the migration. With a checkpoint file, an interrupted migration resumes after the last checkpoint.
+ * </p>
+ *
+ * @param <K> Key
+ * @param <V> Value
+ */
+public class StorageMigrator<K, V> {
+    private final MigrationSource<K, V> source;
+    private final MigrationTarget<K, V> target;
+    private final MigrationSource<K, V> verifySource;
+    private final JsonAdapter<K> keyAdapter;
+    private final JsonAdapter<V> valueAdapter;
+    private final int batchSize;
+    private final int checkpointInterval;
+    private final File checkpointFile;
+    private final JsonAdapter<Checkpoint> checkpointAdapter;
+    private final Consumer<Progress> progressListener;
+
+    protected StorageMigrator(Builder<K, V> builder) {
+        this.source = builder.source;
+        this.target = builder.target;
+        this.verifySource = builder.verifySource;
+        this.batchSize = builder.batchSize;
+        this.checkpointInterval = builder.checkpointInterval;
+        this.checkpointFile = builder.checkpointFile;
+        this.progressListener = builder.progressListener;
+
+        Moshi moshi = JSONStorage.createMoshi(builder.customAdapters);
+        this.keyAdapter = moshi.adapter(builder.keyClass);
+        this.valueAdapter = moshi.adapter(builder.valueClass);
+        this.checkpointAdapter = moshi.adapter(Checkpoint.class);
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Runs the migration on the calling thread, resuming from the checkpoint file if there is one.
+     * The checkpoint file is deleted once the migration completes.
+     *
+     * @return The result, including whether the target matched the source
+     */
+    public Result migrate() {
+        long start = System.currentTimeMillis();
+        Checkpoint checkpoint = readCheckpoint();
+        Run run = new Run(checkpoint, source.size(), start);
+
+        try {
+            source.forEach(run::accept);
+            run.commit(true);
+        } catch (IOException | RuntimeException e) {
+            throw new RuntimeException("Migration failed after " + run.migrated + " entries", e);
+        }
+
+        if (run.read < checkpoint.migrated) {
+            throw new IllegalStateException("Source has fewer entries than the checkpoint: " + run.read);
+        }
+
+        Boolean verified = null;
+        if (verifySource != null) {
+            long[] targetChecksum = {0, 0};
+            try {
+                verifySource.forEach((key, value) -> {
+                    targetChecksum[0] += fingerprint(key, value);
+                    targetChecksum[1]++;
+                });
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read target for verification", e);
+            }
+            verified = targetChecksum[0] == run.checksum && targetChecksum[1] == run.read;
+        }
+
+        if (checkpointFile != null && checkpointFile.exists() && !checkpointFile.delete()) {
+            throw new RuntimeException("Could not delete checkpoint file: " + checkpointFile);
+        }
+
+        return new Result(run.read, checkpoint.migrated, run.checksum, verified,
+                Duration.ofMillis(System.currentTimeMillis() - start));
+    }
+
+    private long fingerprint(K key, V value) {
+        CRC32 crc = new CRC32();
+        crc.update(keyAdapter.toJson(key).getBytes(StandardCharsets.UTF_8));
+        crc.update(0);
+        crc.update(valueAdapter.toJson(value).getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private Checkpoint readCheckpoint() {
+        File source = checkpointFile == null ? null : AtomicFile.readable(checkpointFile);
+        if (source == null) return new Checkpoint();
+
+        try (BufferedSource reader = Okio.buffer(Okio.source(Files.newInputStream(source.toPath())))) {
+            Checkpoint checkpoint = checkpointAdapter.fromJson(reader);
+            return checkpoint == null ? new Checkpoint() : checkpoint;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read checkpoint file: " + source, e);
+        }
+    }
+
+    private void writeCheckpoint(long migrated, long checksum) {
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.migrated = migrated;
+        checkpoint.checksum = checksum;
+        try {
+            AtomicFile.write(checkpointFile, true, sink -> checkpointAdapter.toJson(sink, checkpoint));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write checkpoint file: " + checkpointFile, e);
+        }
+    }
+
+    /**
+     * State of a single migration run, fed one entry at a time by the source.
+     */
+    private class Run {
+        private final Checkpoint checkpoint;
+        private final long total;
+        private final long start;
+        private final Map<K, V> batch;
+        private long read;
+        private long migrated;
+        private long checksum;
+        private long sinceCheckpoint;
+
+        private Run(Checkpoint checkpoint, long total, long start) {
+            this.checkpoint = checkpoint;
+            this.total = total;
+            this.start = start;
+            this.batch = new LinkedHashMap<>(Math.min(batchSize, 1 << 16) * 4 / 3 + 1);
+            this.migrated = checkpoint.migrated;
+        }
+
+        private void accept(K key, V value) {
+            checksum += fingerprint(key, value);
+            read++;
+
+            // Entries before the checkpoint are only read to check the source didn't change since
+            if (read <= checkpoint.migrated) {
+                if (read == checkpoint.migrated && checksum != checkpoint.checksum) {
+                    throw new IllegalStateException("Source changed since the checkpoint was written");
+                }
+                return;
+            }
+
+            batch.put(key, value);
+            if (batch.size() >= batchSize) {
+                commit(false);
+            }
+        }
+
+        private void commit(boolean last) {
+            if (!batch.isEmpty()) {
+                target.write(batch);
+                migrated += batch.size();
+                sinceCheckpoint += batch.size();
+                batch.clear();
+            }
+
+            if (last || sinceCheckpoint >= checkpointInterval) {
+                target.flush();
+                if (checkpointFile != null) {
+                    writeCheckpoint(migrated, checksum);
+                }
+                sinceCheckpoint = 0;
+            }
+
+            if (progressListener != null) {
+                progressListener.accept(new Progress(migrated, total, System.currentTimeMillis() - start));
+            }
+        }
+    }
+
+    /**
+     * Persisted progress of an interrupted migration.
+     */
+    @JsonClass(generateAdapter = true)
+    static class Checkpoint {
+        long migrated;
+        long checksum;
+    }
+
+    /**
+     * Progress reported after every batch.
+     *
+     * @param migrated Entries migrated so far, including those of earlier runs
+     * @param total Entries in the source, or -1 if unknown
+     * @param elapsedMillis Time spent in this run
+     */
+    public record Progress(long migrated, long total, long elapsedMillis) {
+    }
+
+    /**
+     * Outcome of a completed migration.
+     *
+     * @param entries Entries in the source
+     * @param resumedFrom Entries that were already migrated by an earlier run
+     * @param checksum Order independent checksum of the source entries
+     * @param verified Whether the target matched the source, or null if it was not verified
+     * @param duration Time spent in this run
+     */
+    public record Result(long entries, long resumedFrom, long checksum, Boolean verified, Duration duration) {
+    }
+
+    public static class Builder<K, V> {
+        private final List<JSONStorage.AdapterEntry<?>> customAdapters = new ArrayList<>();
+        private MigrationSource<K, V> source;
+        private MigrationTarget<K, V> target;
+        private MigrationSource<K, V> verifySource;
+        private Class<K> keyClass;
+        private Class<V> valueClass;
+        private int batchSize = 1000;
+        private int checkpointInterval = 10000;
+        private File checkpointFile;
+        private Consumer<Progress> progressListener;
+
+        public Builder<K, V> source(MigrationSource<K, V> source) {
+            this.source = source;
+            return this;
+        }
+
+        public Builder<K, V> source(Storage<K, V> source) {
+            return source(MigrationSource.of(source));
+        }
+
+        public Builder<K, V> target(MigrationTarget<K, V> target) {
+            this.target = target;
+            return this;
+        }
+
+        /**
+         * Writes into a storage, and verifies the migration by reading it back.
+         */
+        public Builder<K, V> target(Storage<K, V> target) {
+            this.verifySource = MigrationSource.of(target);
+            return target(MigrationTarget.of(target));
+        }
+
+        /**
+         * Sets how the target is read back for verification. The target should be empty before migrating.
+         */
+        public Builder<K, V> verifyWith(MigrationSource<K, V> verifySource) {
+            this.verifySource = verifySource;
+            return this;
+        }
+
+        public Builder<K, V> keyClass(Class<K> keyClass) {
+            this.keyClass = keyClass;
+            return this;
+        }
+
+        public Builder<K, V> valueClass(Class<V> valueClass) {
+            this.valueClass = valueClass;
+            return this;
+        }
+
+        /**
+         * Sets how many entries are held in memory and written to the target at once. Defaults to 1000.
+         */
+        public Builder<K, V> batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets after how many entries the target is flushed and a checkpoint is written. Defaults to 10000.
+         * Targets that rewrite a whole file on save, like {@link JSONStorage}, need a large interval.
+         */
+        public Builder<K, V> checkpointInterval(int checkpointInterval) {
+            this.checkpointInterval = checkpointInterval;
+            return this;
+        }
+
+        /**
+         * Enables resuming, the migration continues after the last checkpoint recorded in this file.
+         */
+        public Builder<K, V> checkpointFile(File checkpointFile) {
+            this.checkpointFile = checkpointFile;
+            return this;
+        }
+
+        public Builder<K, V> onProgress(Consumer<Progress> progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * Registers a Moshi adapter, used to fingerprint entries for the checksum.
+         */
+        public <T> Builder<K, V> addAdapter(Type type, JsonAdapter<T> adapter) {
+            customAdapters.add(new JSONStorage.AdapterEntry<>(type, adapter));
+            return this;
+        }
+
+        public StorageMigrator<K, V> build() {
+            validate();
+            return new StorageMigrator<>(this);
+        }
+
+        private void validate() {
+            if (source == null) throw new IllegalStateException("Source is required");
+            if (target == null) throw new IllegalStateException("Target is required");
+            if (keyClass == null) throw new IllegalStateException("Key class is required");
+            if (valueClass == null) throw new IllegalStateException("Value class is required");
+            if (batchSize <= 0) throw new IllegalStateException("Batch size must be positive");
+            if (checkpointInterval <= 0) throw new IllegalStateException("Checkpoint interval must be positive");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package me.levitate.quill.storage;
+
+import me.levitate.quill.storage.io.AtomicFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The files a storage writes for one save, detached from the live data so they can be written on another thread.
+ * Completing or failing the snapshot reports the outcome back to the storage's change tracking.
+ * A snapshot superseded by a newer save before it is written is skipped, so it can't overwrite the newer data.
+ */
+final class StorageSnapshot {
+    static final StorageSnapshot EMPTY = new StorageSnapshot(() -> {}, () -> {});
+
+    private final Map<File, AtomicFile.SinkWriter> files = new LinkedHashMap<>();
+    private final Runnable onComplete;
+    private final Runnable onFailure;
+    private final BooleanSupplier superseded;
+
+    StorageSnapshot(Runnable onComplete, Runnable onFailure) {
+        this(onComplete, onFailure, () -> false);
+    }
+
+    /**
+     * @param superseded Whether a newer save was written since this snapshot was taken, checked under the write lock
+     */
+    StorageSnapshot(Runnable onComplete, Runnable onFailure, BooleanSupplier superseded) {
+        this.onComplete = onComplete;
+        this.onFailure = onFailure;
+        this.superseded = superseded;
+    }
+
+    StorageSnapshot add(File target, AtomicFile.SinkWriter writer) {
+        files.put(target, writer);
+        return this;
+    }
+
+    boolean isEmpty() {
+        return files.isEmpty();
+    }
+
+    /**
+     * Writes each file atomically on its own, then completes the snapshot.
+     */
+    void write(boolean fsync) throws IOException {
+        if (superseded.getAsBoolean()) return;
+
+        try {
+            for (Map.Entry<File, AtomicFile.SinkWriter> entry : files.entrySet()) {
+                AtomicFile.write(entry.getKey(), fsync, entry.getValue());
+            }
+        } catch (IOException | RuntimeException e) {
+            onFailure.run();
+            throw e;
+        }
+        onComplete.run();
+    }
+
+    /**
+     * Stages the files into a group commit, without replacing them yet.
+     */
+    void stage(AtomicFile.Batch batch) throws IOException {
+        for (Map.Entry<File, AtomicFile.SinkWriter> entry : files.entrySet()) {
+            batch.stage(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Replaces the staged files, then completes the snapshot. Must be called under the storage's write lock,
+     * the staged files are discarded instead if a newer save was written since they were staged.
+     */
+    void commit(AtomicFile.Batch batch) throws IOException {
+        if (superseded.getAsBoolean()) {
+            files.keySet().forEach(batch::discard);
+            return;
+        }
+
+        try {
+            for (File target : files.keySet()) {
+                batch.replace(target);
+            }
+        } catch (IOException | RuntimeException e) {
+            files.keySet().forEach(batch::discard);
+            onFailure.run();
+            throw e;
+        }
+        onComplete.run();
+    }
+
+    void fail() {
+        onFailure.run();
+    }
+
+    /**
+     * A storage that can hand its saves to the shared {@link StorageWriter}.
+     */
+    interface Source {
+        File getFile();
+
+        /**
+         * The lock held by the storage while writing its files.
+         */
+        Object getWriteLock();
+
+        boolean isDirty();
+
+        /**
+         * Whether {@link #snapshot} may be called from the writer thread, rather than the thread owning the storage.
+         */
+        boolean isSnapshotThreadSafe();
+
+        StorageSnapshot snapshot();
+    }
+}
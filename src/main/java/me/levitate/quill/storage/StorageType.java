@@ -0,0 +1,23 @@
+package me.levitate.quill.storage;
+
+/**
+ * The storage backends that can be created through {@link StorageBuilder}.
+ */
+public enum StorageType {
+    /**
+     * A single JSON file held in memory, see {@link JSONStorage}
+     */
+    JSON,
+    /**
+     * A single compact binary file held in memory, see {@link BinaryStorage}
+     */
+    BINARY,
+    /**
+     * A directory of JSON shard files loaded on demand, see {@link ShardedJSONStorage}
+     */
+    SHARDED_JSON,
+    /**
+     * An embedded SQLite database, see {@link SQLStorage}
+     */
+    SQLITE
+}
@@ -0,0 +1,322 @@
+package me.levitate.quill.storage;
+
+import me.levitate.quill.injection.annotation.Inject;
+import me.levitate.quill.injection.annotation.Module;
+import me.levitate.quill.injection.annotation.PostConstruct;
+import me.levitate.quill.injection.annotation.PreDestroy;
+import me.levitate.quill.storage.io.AtomicFile;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Saves registered storages as group commits on a single I/O thread, instead of every storage saving on its own schedule.
+ * <p>
+ * Each interval, the dirty storages are snapshotted on the main thread, a few at a time in round-robin order so
+ * large saves are spread over several ticks, and written together according to the {@link FsyncPolicy}.
+ * Storages registered here don't need autosave enabled.
+ * </p>
+ */
+@Module
+public class StorageWriter {
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+    private final ExecutorService ioThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Quill-StorageWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder filesWritten = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private volatile long lastNanos;
+
+    private volatile FsyncPolicy fsyncPolicy = FsyncPolicy.BATCH;
+    private volatile int maxStoragesPerCommit = 4;
+    private long intervalTicks = 20;
+    private int cursor;
+    private BukkitTask task;
+
+    @Inject
+    private Plugin plugin;
+
+    @PostConstruct
+    public void init() {
+        schedule();
+    }
+
+    /**
+     * Stops the I/O thread and writes every dirty storage synchronously.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+
+        ioThread.shutdown();
+        try {
+            if (!ioThread.awaitTermination(30, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for pending storage writes");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Commit> remaining = new ArrayList<>();
+        for (Registration registration : registrations) {
+            if (registration.source.isDirty()) {
+                remaining.add(new Commit(registration, registration.source.snapshot()));
+            }
+        }
+        write(remaining);
+    }
+
+    /**
+     * Registers a storage, so its changes are saved by this writer.
+     *
+     * @throws IllegalArgumentException if the backend manages its own writes, like sharded or SQL storages
+     */
+    public void register(Storage<?, ?> storage) {
+        StorageSnapshot.Source source;
+        if (storage instanceof JSONStorage<?, ?> jsonStorage) {
+            source = jsonStorage.snapshotSource();
+        } else if (storage instanceof BinaryStorage<?, ?> binaryStorage) {
+            source = binaryStorage.snapshotSource();
+        } else {
+            throw new IllegalArgumentException("Storage does not support group commits: " + storage.getClass().getName());
+        }
+
+        registrations.add(new Registration(storage, source));
+    }
+
+    /**
+     * Stops saving a storage. Changes that were not written yet are left to the storage.
+     */
+    public void unregister(Storage<?, ?> storage) {
+        registrations.removeIf(registration -> registration.storage == storage);
+    }
+
+    public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    /**
+     * Sets the maximum number of storages snapshotted and written per interval. Defaults to 4.
+     */
+    public void setMaxStoragesPerCommit(int maxStoragesPerCommit) {
+        if (maxStoragesPerCommit <= 0) throw new IllegalArgumentException("Max storages per commit must be positive");
+        this.maxStoragesPerCommit = maxStoragesPerCommit;
+    }
+
+    /**
+     * Sets how often dirty storages are collected into a group commit. Defaults to 20 ticks.
+     */
+    public void setIntervalTicks(long intervalTicks) {
+        if (intervalTicks <= 0) throw new IllegalArgumentException("Interval must be positive");
+        this.intervalTicks = intervalTicks;
+        schedule();
+    }
+
+    /**
+     * Commits every dirty storage at once, ignoring the per interval limit. Must be called from the main thread.
+     *
+     * @return A future that completes once the commit has been written
+     */
+    public CompletableFuture<Void> flushAll() {
+        List<Commit> group = new ArrayList<>();
+        for (Registration registration : registrations) {
+            Commit commit = prepare(registration);
+            if (commit != null) {
+                group.add(commit);
+            }
+        }
+        return submit(group);
+    }
+
+    /**
+     * Gets the write statistics since the server started.
+     */
+    public Stats getStats() {
+        long count = commits.sum();
+        return new Stats(count, filesWritten.sum(), failures.sum(),
+                count == 0 ? 0 : totalNanos.sum() / count / 1_000_000.0,
+                maxNanos.get() / 1_000_000.0,
+                lastNanos / 1_000_000.0);
+    }
+
+    private void schedule() {
+        if (plugin == null) return;
+
+        if (task != null) {
+            task.cancel();
+        }
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, intervalTicks, intervalTicks);
+    }
+
+    private void tick() {
+        List<Registration> snapshot = new ArrayList<>(registrations);
+        if (snapshot.isEmpty()) return;
+
+        // Continue where the previous interval stopped, so busy storages can't starve the others
+        List<Commit> group = new ArrayList<>();
+        int size = snapshot.size();
+        int visited = 0;
+        while (visited < size && group.size() < maxStoragesPerCommit) {
+            Registration registration = snapshot.get((cursor + visited) % size);
+            visited++;
+
+            Commit commit = prepare(registration);
+            if (commit != null) {
+                group.add(commit);
+            }
+        }
+        cursor = (cursor + visited) % size;
+
+        submit(group);
+    }
+
+    /**
+     * Snapshots a dirty storage on the main thread, or defers the snapshot to the I/O thread when that is safe.
+     */
+    private Commit prepare(Registration registration) {
+        if (!registration.source.isDirty() || !registration.inFlight.compareAndSet(false, true)) {
+            return null;
+        }
+
+        try {
+            StorageSnapshot snapshot = registration.source.isSnapshotThreadSafe() ? null : registration.source.snapshot();
+            return new Commit(registration, snapshot);
+        } catch (RuntimeException e) {
+            registration.inFlight.set(false);
+            plugin.getLogger().log(Level.SEVERE, "Failed to snapshot storage: " + registration.source.getFile(), e);
+            return null;
+        }
+    }
+
+    private CompletableFuture<Void> submit(List<Commit> group) {
+        if (group.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.runAsync(() -> {
+            try {
+                write(group);
+            } finally {
+                group.forEach(commit -> commit.registration.inFlight.set(false));
+            }
+        }, ioThread);
+    }
+
+    private void write(List<Commit> group) {
+        long start = System.nanoTime();
+
+        List<Commit> commits = new ArrayList<>(group.size());
+        for (Commit commit : group) {
+            try {
+                StorageSnapshot snapshot = commit.snapshot != null ? commit.snapshot : commit.registration.source.snapshot();
+                if (!snapshot.isEmpty()) {
+                    commits.add(new Commit(commit.registration, snapshot));
+                }
+            } catch (RuntimeException e) {
+                failures.increment();
+                plugin.getLogger().log(Level.SEVERE, "Failed to snapshot storage: " + commit.registration.source.getFile(), e);
+            }
+        }
+        if (commits.isEmpty()) return;
+
+        if (fsyncPolicy == FsyncPolicy.BATCH) {
+            writeBatch(commits);
+        } else {
+            writeEach(commits, fsyncPolicy == FsyncPolicy.ALWAYS);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        this.commits.increment();
+        totalNanos.add(elapsed);
+        maxNanos.accumulateAndGet(elapsed, Math::max);
+        lastNanos = elapsed;
+    }
+
+    private void writeEach(List<Commit> commits, boolean fsync) {
+        for (Commit commit : commits) {
+            // Only this storage is locked, so saves of the others aren't held up by this write
+            try {
+                synchronized (commit.registration.source.getWriteLock()) {
+                    commit.snapshot.write(fsync);
+                }
+                filesWritten.increment();
+            } catch (IOException | RuntimeException e) {
+                failures.increment();
+                plugin.getLogger().log(Level.SEVERE, "Failed to write storage: " + commit.registration.source.getFile(), e);
+            }
+        }
+    }
+
+    private void writeBatch(List<Commit> commits) {
+        // Staging and syncing use the batch's own temporary files, so they don't need the storages' locks
+        AtomicFile.Batch batch = new AtomicFile.Batch();
+        try {
+            for (Commit commit : commits) {
+                commit.snapshot.stage(batch);
+            }
+            batch.sync();
+        } catch (IOException | RuntimeException e) {
+            // The storages stay dirty and are written again by a later commit
+            batch.abort();
+            commits.forEach(commit -> commit.snapshot.fail());
+            failures.add(commits.size());
+            plugin.getLogger().log(Level.SEVERE, "Failed to write storage group commit", e);
+            return;
+        }
+
+        // Each storage is locked only for its own renames, so a save on the main thread waits for those alone
+        for (Commit commit : commits) {
+            try {
+                synchronized (commit.registration.source.getWriteLock()) {
+                    commit.snapshot.commit(batch);
+                }
+                filesWritten.increment();
+            } catch (IOException | RuntimeException e) {
+                failures.increment();
+                plugin.getLogger().log(Level.SEVERE, "Failed to write storage: " + commit.registration.source.getFile(), e);
+            }
+        }
+        batch.syncDirectories();
+    }
+
+    /**
+     * Write statistics of the group commits.
+     *
+     * @param commits Number of group commits written
+     * @param filesWritten Number of storages written across all commits
+     * @param failures Number of storages that failed to snapshot or write
+     * @param averageMillis Average duration of a group commit
+     * @param maxMillis Longest duration of a group commit
+     * @param lastMillis Duration of the most recent group commit
+     */
+    public record Stats(long commits, long filesWritten, long failures, double averageMillis, double maxMillis, double lastMillis) {
+    }
+
+    private record Registration(Storage<?, ?> storage, StorageSnapshot.Source source, AtomicBoolean inFlight) {
+        private Registration(Storage<?, ?> storage, StorageSnapshot.Source source) {
+            this(storage, source, new AtomicBoolean());
+        }
+    }
+
+    // A null snapshot is taken on the I/O thread
+    private record Commit(Registration registration, StorageSnapshot snapshot) {
+    }
+}
@@ -0,0 +1,41 @@
+package me.levitate.quill.storage.binary;
+
+import java.io.IOException;
+
+/**
+ * Encodes values of one type for the binary storage format.
+ *
+ * @param <T> The type handled by this codec
+ */
+public interface BinaryCodec<T> {
+    void write(BinaryWriter writer, T value) throws IOException;
+
+    T read(BinaryReader reader) throws IOException;
+
+    /**
+     * Creates a codec from a pair of functions.
+     */
+    static <T> BinaryCodec<T> of(Encoder<T> encoder, Decoder<T> decoder) {
+        return new BinaryCodec<>() {
+            @Override
+            public void write(BinaryWriter writer, T value) throws IOException {
+                encoder.write(writer, value);
+            }
+
+            @Override
+            public T read(BinaryReader reader) throws IOException {
+                return decoder.read(reader);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    interface Encoder<T> {
+        void write(BinaryWriter writer, T value) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Decoder<T> {
+        T read(BinaryReader reader) throws IOException;
+    }
+}
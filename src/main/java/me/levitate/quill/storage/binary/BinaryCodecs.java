@@ -0,0 +1,45 @@
+package me.levitate.quill.storage.binary;
+
+import me.levitate.quill.storage.binary.codecs.bukkit.ItemStackCodec;
+import me.levitate.quill.storage.binary.codecs.bukkit.LocationCodec;
+import me.levitate.quill.storage.binary.codecs.bukkit.WorldCodec;
+import me.levitate.quill.storage.binary.codecs.common.UUIDCodec;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Built-in codecs for common types.
+ */
+public class BinaryCodecs {
+    public static final BinaryCodec<String> STRING = BinaryCodec.of(BinaryWriter::writeString, BinaryReader::readString);
+    public static final BinaryCodec<Integer> INTEGER = BinaryCodec.of(
+            (writer, value) -> writer.writeSignedVarLong(value),
+            reader -> (int) reader.readSignedVarLong());
+    public static final BinaryCodec<Long> LONG = BinaryCodec.of(BinaryWriter::writeSignedVarLong, BinaryReader::readSignedVarLong);
+    public static final BinaryCodec<Double> DOUBLE = BinaryCodec.of(BinaryWriter::writeDouble, BinaryReader::readDouble);
+    public static final BinaryCodec<Float> FLOAT = BinaryCodec.of(BinaryWriter::writeFloat, BinaryReader::readFloat);
+    public static final BinaryCodec<Boolean> BOOLEAN = BinaryCodec.of(BinaryWriter::writeBoolean, BinaryReader::readBoolean);
+
+    /**
+     * Creates the default codec registry, the binary counterpart of the default Moshi adapters.
+     */
+    public static Map<Class<?>, BinaryCodec<?>> defaults() {
+        Map<Class<?>, BinaryCodec<?>> codecs = new HashMap<>();
+        codecs.put(String.class, STRING);
+        codecs.put(Integer.class, INTEGER);
+        codecs.put(Long.class, LONG);
+        codecs.put(Double.class, DOUBLE);
+        codecs.put(Float.class, FLOAT);
+        codecs.put(Boolean.class, BOOLEAN);
+        codecs.put(UUID.class, new UUIDCodec());
+        codecs.put(Location.class, new LocationCodec());
+        codecs.put(World.class, new WorldCodec());
+        codecs.put(ItemStack.class, new ItemStackCodec());
+        return codecs;
+    }
+}
@@ -0,0 +1,86 @@
+package me.levitate.quill.storage.binary;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a file written by {@link BinaryFileWriter} one record at a time.
+ */
+public class BinaryFileReader {
+    private final InputStream input;
+    private final List<String> dictionary = new ArrayList<>();
+    private final BinaryReader reader = new BinaryReader(dictionary);
+    private byte[] buffer = new byte[256];
+
+    public BinaryFileReader(InputStream input) throws IOException {
+        this.input = input;
+
+        int magic = 0;
+        for (int i = 0; i < 4; i++) {
+            int b = input.read();
+            if (b < 0) throw new EOFException("Missing binary storage header");
+            magic = (magic << 8) | b;
+        }
+        if (magic != BinaryFileWriter.MAGIC) {
+            throw new IOException("Not a binary storage file");
+        }
+
+        int version = readVarInt(true);
+        if (version != BinaryFileWriter.VERSION) {
+            throw new IOException("Unsupported binary storage version: " + version);
+        }
+    }
+
+    /**
+     * Moves to the next record and registers the strings it adds to the dictionary.
+     * The key and value can then be read from {@link #record()}, anything left unread is skipped.
+     *
+     * @return False once the end of the file is reached
+     */
+    public boolean next() throws IOException {
+        int length = readVarInt(false);
+        if (length < 0) return false;
+
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+
+        int read = 0;
+        while (read < length) {
+            int count = input.read(buffer, read, length - read);
+            if (count < 0) throw new EOFException("Record ended unexpectedly");
+            read += count;
+        }
+
+        reader.reset(buffer, 0, length);
+        int newStrings = reader.readVarInt();
+        for (int i = 0; i < newStrings; i++) {
+            dictionary.add(reader.readUtf8());
+        }
+        return true;
+    }
+
+    /**
+     * Gets the reader positioned at the current record's payload.
+     */
+    public BinaryReader record() {
+        return reader;
+    }
+
+    private int readVarInt(boolean required) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = input.read();
+            if (b < 0) {
+                if (shift == 0 && !required) return -1;
+                throw new EOFException("Record ended unexpectedly");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,56 @@
+package me.levitate.quill.storage.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Writes a binary storage file as a sequence of length-prefixed records.
+ * Each record starts with the strings it adds to the file's dictionary, followed by the key and value payload,
+ * so readers can learn the dictionary and skip a record without decoding it.
+ */
+public class BinaryFileWriter {
+    static final int MAGIC = 0x51425346; // "QBSF"
+    static final int VERSION = 1;
+
+    private final OutputStream output;
+    private final BinaryWriter payload = new BinaryWriter(new HashMap<>());
+    private final BinaryWriter header = new BinaryWriter(new HashMap<>());
+
+    public BinaryFileWriter(OutputStream output) throws IOException {
+        this.output = output;
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            output.write(MAGIC >>> shift);
+        }
+        writeVarInt(output, VERSION);
+    }
+
+    /**
+     * Appends a record to the file.
+     */
+    public <K, V> void write(K key, BinaryCodec<K> keyCodec, V value, BinaryCodec<V> valueCodec) throws IOException {
+        payload.reset();
+        keyCodec.write(payload, key);
+        valueCodec.write(payload, value);
+
+        header.reset();
+        List<String> newStrings = payload.getNewStrings();
+        header.writeVarInt(newStrings.size());
+        for (String string : newStrings) {
+            header.writeUtf8(string);
+        }
+
+        writeVarInt(output, header.size() + payload.size());
+        output.write(header.getBuffer(), 0, header.size());
+        output.write(payload.getBuffer(), 0, payload.size());
+    }
+
+    private static void writeVarInt(OutputStream output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write(value);
+    }
+}
@@ -0,0 +1,111 @@
+package me.levitate.quill.storage.binary;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Reads the payload of a single binary record, the counterpart of {@link BinaryWriter}.
+ */
+public class BinaryReader {
+    private final List<String> dictionary;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+
+    BinaryReader(List<String> dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public int readByte() throws IOException {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    public int readVarInt() throws IOException {
+        long value = readVarLong();
+        if (value > 0xFFFFFFFFL) throw new IOException("Varint out of range: " + value);
+        return (int) value;
+    }
+
+    public long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public long readSignedVarLong() throws IOException {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readFixedLong());
+    }
+
+    public float readFloat() throws IOException {
+        require(4);
+        int bits = 0;
+        for (int i = 0; i < 4; i++) {
+            bits = (bits << 8) | (buffer[position++] & 0xFF);
+        }
+        return Float.intBitsToFloat(bits);
+    }
+
+    public long readFixedLong() throws IOException {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Reads a string written through the dictionary. Equal strings in one file share the same instance.
+     */
+    public String readString() throws IOException {
+        int index = readVarInt();
+        if (index == 0) return null;
+        if (index > dictionary.size()) throw new IOException("Unknown string reference: " + index);
+        return dictionary.get(index - 1);
+    }
+
+    public String readUtf8() throws IOException {
+        int length = readVarInt();
+        require(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public byte[] readBytes() throws IOException {
+        int length = readVarInt();
+        require(length);
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    void reset(byte[] buffer, int position, int limit) {
+        this.buffer = buffer;
+        this.position = position;
+        this.limit = limit;
+    }
+
+    private void require(int bytes) throws IOException {
+        if (position + bytes > limit) {
+            throw new EOFException("Record ended unexpectedly");
+        }
+    }
+}
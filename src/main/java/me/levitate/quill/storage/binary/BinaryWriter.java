@@ -0,0 +1,137 @@
+package me.levitate.quill.storage.binary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the payload of a single binary record.
+ * Numbers are varint encoded, and strings written through {@link #writeString(String)} are stored once per file
+ * in a dictionary and referenced by index afterwards.
+ */
+public class BinaryWriter {
+    private final Map<String, Integer> dictionary;
+    private final List<String> newStrings = new ArrayList<>();
+    private byte[] buffer = new byte[256];
+    private int position;
+
+    BinaryWriter(Map<String, Integer> dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes a non-negative int using one to five bytes.
+     */
+    public void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Writes a non-negative long using one to ten bytes.
+     */
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * Writes a long that may be negative, small magnitudes take few bytes.
+     */
+    public void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeDouble(double value) {
+        writeFixedLong(Double.doubleToRawLongBits(value));
+    }
+
+    public void writeFloat(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        ensureCapacity(4);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (bits >>> shift);
+        }
+    }
+
+    public void writeFixedLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * Writes a string through the file's dictionary. Repeated strings cost a single varint.
+     *
+     * @param value The string, may be null
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+
+        Integer index = dictionary.get(value);
+        if (index == null) {
+            index = dictionary.size();
+            dictionary.put(value, index);
+            newStrings.add(value);
+        }
+        writeVarInt(index + 1);
+    }
+
+    /**
+     * Writes a string inline, without the dictionary. Use this for values that rarely repeat.
+     */
+    public void writeUtf8(String value) {
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a length-prefixed byte array.
+     */
+    public void writeBytes(byte[] bytes) {
+        writeVarInt(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    List<String> getNewStrings() {
+        return newStrings;
+    }
+
+    byte[] getBuffer() {
+        return buffer;
+    }
+
+    int size() {
+        return position;
+    }
+
+    void reset() {
+        position = 0;
+        newStrings.clear();
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (position + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+        }
+    }
+}
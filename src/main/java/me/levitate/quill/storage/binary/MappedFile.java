@@ -0,0 +1,227 @@
+package me.levitate.quill.storage.binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads a file written by {@link MappedFileWriter} through a read-only memory mapping.
+ * <p>
+ * Nothing is decoded up front: lookups binary search the hash index in the mapping and decode only the matching record,
+ * and dictionary strings are decoded when a value references them. The data therefore stays in the page cache
+ * instead of the heap. Reads use absolute positions only, so one instance can be shared between threads.
+ * </p>
+ */
+public class MappedFile {
+    private static final int INDEX_ENTRY_SIZE = 12;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int recordsEnd;
+    private final int indexOffset;
+    private final int stringCount;
+    private final List<String> dictionary = new AbstractList<>() {
+        @Override
+        public String get(int index) {
+            int offset = buffer.getInt(recordsEnd + 4 + index * 4);
+            int[] length = readVarInt(offset);
+            byte[] bytes = new byte[length[0]];
+            buffer.get(length[1], bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int size() {
+            return stringCount;
+        }
+    };
+
+    private MappedFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+
+        int size = buffer.capacity();
+        if (size < 8 + MappedFileWriter.TRAILER_SIZE || buffer.getInt(0) != MappedFileWriter.MAGIC
+                || buffer.getInt(size - 4) != MappedFileWriter.MAGIC) {
+            throw new IOException("Not a mapped storage file");
+        }
+
+        int version = buffer.getInt(size - 8);
+        if (version != MappedFileWriter.VERSION) {
+            throw new IOException("Unsupported mapped storage version: " + version);
+        }
+
+        int trailer = size - MappedFileWriter.TRAILER_SIZE;
+        this.count = buffer.getInt(trailer);
+        this.recordsEnd = buffer.getInt(trailer + 4);
+        this.indexOffset = buffer.getInt(trailer + 8);
+        if (recordsEnd < 8 || indexOffset < recordsEnd || indexOffset + (long) count * INDEX_ENTRY_SIZE > trailer) {
+            throw new IOException("Corrupt mapped storage file");
+        }
+        this.stringCount = buffer.getInt(recordsEnd);
+    }
+
+    /**
+     * Maps a file into memory. The mapping stays valid after the channel is closed, until the instance is collected.
+     */
+    public static MappedFile open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Mapped storage files are limited to 2 GB: " + file);
+            }
+            return new MappedFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Finds the value of a key.
+     *
+     * @return The decoded value, or null if the key is absent
+     */
+    public <K, V> V get(K key, BinaryCodec<K> keyCodec, BinaryCodec<V> valueCodec) throws IOException {
+        int record = find(encodeKey(key, keyCodec));
+        if (record < 0) return null;
+
+        int[] keyLength = readVarInt(record);
+        return readValue(keyLength[1] + keyLength[0], valueCodec);
+    }
+
+    public <K> boolean containsKey(K key, BinaryCodec<K> keyCodec) throws IOException {
+        return find(encodeKey(key, keyCodec)) >= 0;
+    }
+
+    /**
+     * Decodes every entry in the order they were written.
+     */
+    public <K, V> void forEach(BinaryCodec<K> keyCodec, BinaryCodec<V> valueCodec, BiConsumer<K, V> action) throws IOException {
+        List<String> keyStrings = new ArrayList<>();
+        BinaryReader keyReader = new BinaryReader(keyStrings);
+
+        int offset = 8;
+        while (offset < recordsEnd) {
+            int[] keyLength = readVarInt(offset);
+            byte[] keyBytes = new byte[keyLength[0]];
+            buffer.get(keyLength[1], keyBytes);
+
+            keyStrings.clear();
+            keyReader.reset(keyBytes, 0, keyBytes.length);
+            int strings = keyReader.readVarInt();
+            for (int i = 0; i < strings; i++) {
+                keyStrings.add(keyReader.readUtf8());
+            }
+            K key = keyCodec.read(keyReader);
+
+            int valueOffset = keyLength[1] + keyLength[0];
+            int[] valueLength = readVarInt(valueOffset);
+            action.accept(key, readValue(valueOffset, valueCodec));
+            offset = valueLength[1] + valueLength[0];
+        }
+    }
+
+    /**
+     * Encodes a key on its own, with the strings it uses inlined, so equal keys always produce the same bytes.
+     */
+    static <K> byte[] encodeKey(K key, BinaryCodec<K> keyCodec) throws IOException {
+        BinaryWriter payload = new BinaryWriter(new HashMap<>());
+        keyCodec.write(payload, key);
+
+        BinaryWriter encoded = new BinaryWriter(new HashMap<>());
+        encoded.writeVarInt(payload.getNewStrings().size());
+        for (String string : payload.getNewStrings()) {
+            encoded.writeUtf8(string);
+        }
+
+        byte[] bytes = Arrays.copyOf(encoded.getBuffer(), encoded.size() + payload.size());
+        System.arraycopy(payload.getBuffer(), 0, bytes, encoded.size(), payload.size());
+        return bytes;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the encoded key.
+     */
+    static long hash(byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Binary searches the index for the key's hash, then compares the keys of records sharing it.
+     *
+     * @return The offset of the record, or -1 if the key is absent
+     */
+    private int find(byte[] key) {
+        long hash = hash(key);
+
+        // Finds the first index entry with the hash
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.getLong(indexOffset + middle * INDEX_ENTRY_SIZE) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        for (int i = low; i < count; i++) {
+            int entry = indexOffset + i * INDEX_ENTRY_SIZE;
+            if (buffer.getLong(entry) != hash) break;
+
+            int record = buffer.getInt(entry + 8);
+            if (keyEquals(record, key)) return record;
+        }
+        return -1;
+    }
+
+    private boolean keyEquals(int record, byte[] key) {
+        int[] length = readVarInt(record);
+        if (length[0] != key.length) return false;
+
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(length[1] + i) != key[i]) return false;
+        }
+        return true;
+    }
+
+    private <V> V readValue(int offset, BinaryCodec<V> valueCodec) throws IOException {
+        int[] length = readVarInt(offset);
+        byte[] bytes = new byte[length[0]];
+        buffer.get(length[1], bytes);
+
+        BinaryReader reader = new BinaryReader(dictionary);
+        reader.reset(bytes, 0, bytes.length);
+        return valueCodec.read(reader);
+    }
+
+    /**
+     * Reads a varint at an absolute position.
+     *
+     * @return The value, and the position right after it
+     */
+    private int[] readVarInt(int offset) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = buffer.get(offset++);
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return new int[]{value, offset};
+        }
+        throw new IllegalStateException("Malformed varint in mapped storage file");
+    }
+}
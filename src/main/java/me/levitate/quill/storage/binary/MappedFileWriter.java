@@ -0,0 +1,150 @@
+package me.levitate.quill.storage.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Writes an immutable file for {@link MappedFile}.
+ * <p>
+ * The file holds the records in the order they were written, each an inlined key followed by a value whose strings
+ * reference a shared dictionary, then the dictionary with an offset table, then an index of every record
+ * sorted by key hash, and a fixed-size trailer pointing at both. Offsets are 32-bit, so files are limited to 2 GB.
+ * </p>
+ */
+public class MappedFileWriter {
+    static final int MAGIC = 0x514D4150; // "QMAP"
+    static final int VERSION = 1;
+    static final int TRAILER_SIZE = 20;
+
+    private final OutputStream output;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final BinaryWriter value = new BinaryWriter(dictionary);
+    private long[] hashes = new long[1024];
+    private int[] offsets = new int[1024];
+    private int count;
+    private long position;
+    private boolean finished;
+
+    public MappedFileWriter(OutputStream output) throws IOException {
+        this.output = output;
+        writeInt(MAGIC);
+        writeInt(VERSION);
+    }
+
+    /**
+     * Appends a record. Keys must be unique, lookups of a key written twice may return either value.
+     */
+    public <K, V> void write(K key, BinaryCodec<K> keyCodec, V value, BinaryCodec<V> valueCodec) throws IOException {
+        if (finished) throw new IllegalStateException("The file was already finished");
+
+        byte[] keyBytes = MappedFile.encodeKey(key, keyCodec);
+        long hash = MappedFile.hash(keyBytes);
+
+        this.value.reset();
+        valueCodec.write(this.value, value);
+        strings.addAll(this.value.getNewStrings());
+
+        if (count == hashes.length) {
+            hashes = Arrays.copyOf(hashes, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        hashes[count] = hash;
+        offsets[count] = checkedPosition();
+        count++;
+
+        writeVarInt(keyBytes.length);
+        writeBytes(keyBytes, keyBytes.length);
+        writeVarInt(this.value.size());
+        writeBytes(this.value.getBuffer(), this.value.size());
+    }
+
+    /**
+     * Writes the dictionary, index and trailer. The output is not closed.
+     */
+    public void finish() throws IOException {
+        if (finished) return;
+        finished = true;
+
+        // Dictionary: string count, an offset per string, then the strings
+        int recordsEnd = checkedPosition();
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        for (String string : strings) {
+            encoded.add(string.getBytes(StandardCharsets.UTF_8));
+        }
+
+        writeInt(strings.size());
+        long stringOffset = position + 4L * encoded.size();
+        for (byte[] bytes : encoded) {
+            if (stringOffset > Integer.MAX_VALUE) throw new IOException("Mapped storage files are limited to 2 GB");
+            writeInt((int) stringOffset);
+            stringOffset += varIntSize(bytes.length) + bytes.length;
+        }
+        for (byte[] bytes : encoded) {
+            writeVarInt(bytes.length);
+            writeBytes(bytes, bytes.length);
+        }
+
+        // Index: the records sorted by key hash
+        int indexOffset = checkedPosition();
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong((Integer i) -> hashes[i]).thenComparingInt(i -> offsets[i]));
+        for (int i : order) {
+            writeLong(hashes[i]);
+            writeInt(offsets[i]);
+        }
+
+        writeInt(count);
+        writeInt(recordsEnd);
+        writeInt(indexOffset);
+        writeInt(VERSION);
+        writeInt(MAGIC);
+        checkedPosition();
+    }
+
+    private int checkedPosition() throws IOException {
+        if (position > Integer.MAX_VALUE) throw new IOException("Mapped storage files are limited to 2 GB");
+        return (int) position;
+    }
+
+    private void writeBytes(byte[] bytes, int length) throws IOException {
+        output.write(bytes, 0, length);
+        position += length;
+    }
+
+    private void writeInt(int value) throws IOException {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            output.write(value >>> shift);
+        }
+        position += 4;
+    }
+
+    private void writeLong(long value) throws IOException {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+            position++;
+        }
+        output.write(value);
+        position++;
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
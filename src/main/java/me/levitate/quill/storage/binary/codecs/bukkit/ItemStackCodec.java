@@ -0,0 +1,33 @@
+package me.levitate.quill.storage.binary.codecs.bukkit;
+
+import me.levitate.quill.storage.binary.BinaryCodec;
+import me.levitate.quill.storage.binary.BinaryReader;
+import me.levitate.quill.storage.binary.BinaryWriter;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+
+/**
+ * Stores items in Paper's compact NBT byte form instead of Base64 object streams.
+ */
+public class ItemStackCodec implements BinaryCodec<ItemStack> {
+    @Override
+    public void write(BinaryWriter writer, ItemStack item) throws IOException {
+        try {
+            writer.writeBytes(item.serializeAsBytes());
+        } catch (Exception e) {
+            throw new IOException("Failed to serialize ItemStack", e);
+        }
+    }
+
+    @Override
+    public ItemStack read(BinaryReader reader) throws IOException {
+        try {
+            return ItemStack.deserializeBytes(reader.readBytes());
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to deserialize ItemStack", e);
+        }
+    }
+}
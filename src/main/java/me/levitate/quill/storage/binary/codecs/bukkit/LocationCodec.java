@@ -0,0 +1,36 @@
+package me.levitate.quill.storage.binary.codecs.bukkit;
+
+import me.levitate.quill.storage.binary.BinaryCodec;
+import me.levitate.quill.storage.binary.BinaryReader;
+import me.levitate.quill.storage.binary.BinaryWriter;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.io.IOException;
+
+public class LocationCodec implements BinaryCodec<Location> {
+    @Override
+    public void write(BinaryWriter writer, Location location) {
+        writer.writeString(location.getWorld().getName());
+        writer.writeDouble(location.getX());
+        writer.writeDouble(location.getY());
+        writer.writeDouble(location.getZ());
+        writer.writeFloat(location.getYaw());
+        writer.writeFloat(location.getPitch());
+    }
+
+    @Override
+    public Location read(BinaryReader reader) throws IOException {
+        String world = reader.readString();
+        double x = reader.readDouble();
+        double y = reader.readDouble();
+        double z = reader.readDouble();
+        float yaw = reader.readFloat();
+        float pitch = reader.readFloat();
+
+        World bukkitWorld = Bukkit.getWorld(world);
+        if (bukkitWorld == null) throw new IOException("World not found: " + world);
+        return new Location(bukkitWorld, x, y, z, yaw, pitch);
+    }
+}
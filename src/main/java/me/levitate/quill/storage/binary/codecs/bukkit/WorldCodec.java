@@ -0,0 +1,24 @@
+package me.levitate.quill.storage.binary.codecs.bukkit;
+
+import me.levitate.quill.storage.binary.BinaryCodec;
+import me.levitate.quill.storage.binary.BinaryReader;
+import me.levitate.quill.storage.binary.BinaryWriter;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.io.IOException;
+
+public class WorldCodec implements BinaryCodec<World> {
+    @Override
+    public void write(BinaryWriter writer, World world) {
+        writer.writeString(world.getName());
+    }
+
+    @Override
+    public World read(BinaryReader reader) throws IOException {
+        String worldName = reader.readString();
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) throw new IOException("World not found: " + worldName);
+        return world;
+    }
+}
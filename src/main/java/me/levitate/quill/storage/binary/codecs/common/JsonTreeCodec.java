@@ -0,0 +1,112 @@
+package me.levitate.quill.storage.binary.codecs.common;
+
+import com.squareup.moshi.JsonAdapter;
+import me.levitate.quill.storage.binary.BinaryCodec;
+import me.levitate.quill.storage.binary.BinaryReader;
+import me.levitate.quill.storage.binary.BinaryWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fallback codec for types without a dedicated codec.
+ * The value is converted to a JSON tree with its Moshi adapter, and the tree is written in binary form,
+ * with field names and strings going through the file's dictionary.
+ */
+public class JsonTreeCodec<T> implements BinaryCodec<T> {
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int LONG = 3;
+    private static final int DOUBLE = 4;
+    private static final int STRING = 5;
+    private static final int LIST = 6;
+    private static final int MAP = 7;
+
+    private final JsonAdapter<T> adapter;
+
+    public JsonTreeCodec(JsonAdapter<T> adapter) {
+        this.adapter = adapter;
+    }
+
+    @Override
+    public void write(BinaryWriter writer, T value) throws IOException {
+        writeTree(writer, adapter.toJsonValue(value));
+    }
+
+    @Override
+    public T read(BinaryReader reader) throws IOException {
+        return adapter.fromJsonValue(readTree(reader));
+    }
+
+    private void writeTree(BinaryWriter writer, Object node) throws IOException {
+        if (node == null) {
+            writer.writeByte(NULL);
+        } else if (node instanceof Boolean bool) {
+            writer.writeByte(bool ? TRUE : FALSE);
+        } else if (node instanceof Long || node instanceof Integer || node instanceof Short || node instanceof Byte) {
+            writer.writeByte(LONG);
+            writer.writeSignedVarLong(((Number) node).longValue());
+        } else if (node instanceof Number number) {
+            double value = number.doubleValue();
+            // Whole numbers stored as doubles are common in Moshi trees, varints are much smaller
+            if (value == Math.rint(value) && Math.abs(value) < (1L << 53) && !(value == 0 && 1 / value < 0)) {
+                writer.writeByte(LONG);
+                writer.writeSignedVarLong((long) value);
+            } else {
+                writer.writeByte(DOUBLE);
+                writer.writeDouble(value);
+            }
+        } else if (node instanceof String string) {
+            writer.writeByte(STRING);
+            writer.writeString(string);
+        } else if (node instanceof List<?> list) {
+            writer.writeByte(LIST);
+            writer.writeVarInt(list.size());
+            for (Object element : list) {
+                writeTree(writer, element);
+            }
+        } else if (node instanceof Map<?, ?> map) {
+            writer.writeByte(MAP);
+            writer.writeVarInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writer.writeString(String.valueOf(entry.getKey()));
+                writeTree(writer, entry.getValue());
+            }
+        } else {
+            throw new IOException("Unsupported JSON value: " + node.getClass().getName());
+        }
+    }
+
+    private Object readTree(BinaryReader reader) throws IOException {
+        int tag = reader.readByte();
+        return switch (tag) {
+            case NULL -> null;
+            case FALSE -> Boolean.FALSE;
+            case TRUE -> Boolean.TRUE;
+            case LONG -> reader.readSignedVarLong();
+            case DOUBLE -> reader.readDouble();
+            case STRING -> reader.readString();
+            case LIST -> {
+                int size = reader.readVarInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readTree(reader));
+                }
+                yield list;
+            }
+            case MAP -> {
+                int size = reader.readVarInt();
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put(reader.readString(), readTree(reader));
+                }
+                yield map;
+            }
+            default -> throw new IOException("Unknown JSON value tag: " + tag);
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package me.levitate.quill.storage.binary.codecs.common;
+
+import me.levitate.quill.storage.binary.BinaryCodec;
+import me.levitate.quill.storage.binary.BinaryReader;
+import me.levitate.quill.storage.binary.BinaryWriter;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.UUID;
+
+public class UUIDCodec implements BinaryCodec<UUID> {
+    @Override
+    public void write(BinaryWriter writer, UUID value) {
+        Objects.requireNonNull(value);
+        writer.writeFixedLong(value.getMostSignificantBits());
+        writer.writeFixedLong(value.getLeastSignificantBits());
+    }
+
+    @Override
+    public UUID read(BinaryReader reader) throws IOException {
+        return new UUID(reader.readFixedLong(), reader.readFixedLong());
+    }
+}
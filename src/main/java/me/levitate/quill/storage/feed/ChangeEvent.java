@@ -0,0 +1,36 @@
+package me.levitate.quill.storage.feed;
+
+/**
+ * A change published by a {@link ChangeFeed}.
+ *
+ * @param sequence The position of the change in the feed, increasing by one for every change
+ * @param type What happened
+ * @param key The changed key, null for {@link Type#CLEAR} and {@link Type#RELOAD}
+ * @param value A copy of the stored value right after the change, null if the key was removed.
+ *              The copy is taken on the thread making the change, so it is safe to read on other threads
+ */
+public record ChangeEvent<K, V>(long sequence, Type type, K key, V value) {
+
+    public enum Type {
+        /**
+         * A value was stored for the key, replacing any previous value.
+         */
+        PUT,
+        /**
+         * The value of the key was modified or recomputed.
+         */
+        UPDATE,
+        /**
+         * The key was removed, or its entry expired.
+         */
+        REMOVE,
+        /**
+         * Every entry was removed.
+         */
+        CLEAR,
+        /**
+         * The data was replaced by loading it from disk, subscribers should resync from the storage.
+         */
+        RELOAD
+    }
+}
@@ -0,0 +1,213 @@
+package me.levitate.quill.storage.feed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An ordered stream of the changes made to a storage, for replication and cache invalidation.
+ * <p>
+ * Changes are numbered in the order they are published, and each change carries the value stored for its key
+ * at that moment, so applying the changes in order always ends with the latest state of every key.
+ * Subscribers either receive changes on the thread that made them, or in batches on their own thread
+ * through a bounded queue. Publishing costs nothing while there are no subscribers.
+ * </p>
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class ChangeFeed<K, V> {
+    private static final Logger LOGGER = Logger.getLogger(ChangeFeed.class.getName());
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+
+    private final List<Consumer<ChangeEvent<K, V>>> subscribers = new CopyOnWriteArrayList<>();
+    private long sequence;
+
+    /**
+     * Gets whether anyone is subscribed, storages skip publishing when nobody is.
+     */
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    /**
+     * Gets the sequence number of the last published change.
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Publishes a change of a key. The value is looked up while publishing, so concurrent changes to the same key
+     * are published with values in the same order; a missing value turns the change into a {@link ChangeEvent.Type#REMOVE}.
+     *
+     * @param type The kind of change
+     * @param key The changed key
+     * @param lookup Gets the value currently stored for the key, or a copy of it when subscribers read it on other threads
+     */
+    public synchronized void publish(ChangeEvent.Type type, K key, Function<K, V> lookup) {
+        if (subscribers.isEmpty()) return;
+
+        V value = lookup.apply(key);
+        dispatch(new ChangeEvent<>(++sequence, value == null ? ChangeEvent.Type.REMOVE : type, key, value));
+    }
+
+    /**
+     * Publishes a change that isn't tied to a key, {@link ChangeEvent.Type#CLEAR} or {@link ChangeEvent.Type#RELOAD}.
+     */
+    public synchronized void publish(ChangeEvent.Type type) {
+        if (subscribers.isEmpty()) return;
+
+        dispatch(new ChangeEvent<>(++sequence, type, null, null));
+    }
+
+    /**
+     * Receives every change on the thread that made it, in order, while the change is being made.
+     * Handlers should be quick, exceptions they throw are logged and don't affect the storage.
+     */
+    public Subscription subscribe(Consumer<ChangeEvent<K, V>> handler) {
+        subscribers.add(handler);
+        return () -> subscribers.remove(handler);
+    }
+
+    /**
+     * Receives changes in batches on a dedicated thread, through a queue holding up to the given amount of changes.
+     * If the subscriber falls behind and the queue fills up, the queued changes are discarded and
+     * {@code onOverflow} runs on the subscriber thread, which should resync from the storage.
+     *
+     * @param capacity The maximum amount of queued changes
+     * @param maxBatchSize The maximum amount of changes handed over at once
+     * @param handler Receives the batches, in order
+     * @param onOverflow Runs when changes were discarded
+     */
+    public AsyncSubscription subscribeAsync(int capacity, int maxBatchSize,
+                                           Consumer<List<ChangeEvent<K, V>>> handler, Runnable onOverflow) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive");
+        if (maxBatchSize <= 0) throw new IllegalArgumentException("Batch size must be positive");
+
+        AsyncSubscription subscription = new AsyncSubscription(capacity, maxBatchSize, handler, onOverflow);
+        subscribers.add(subscription.enqueue);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    private void dispatch(ChangeEvent<K, V> event) {
+        for (Consumer<ChangeEvent<K, V>> subscriber : subscribers) {
+            try {
+                subscriber.accept(event);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Change feed subscriber failed on change " + event.sequence(), e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Subscription {
+        /**
+         * Stops receiving changes.
+         */
+        void cancel();
+    }
+
+    public class AsyncSubscription implements Subscription {
+        private final BlockingQueue<ChangeEvent<K, V>> queue;
+        private final int maxBatchSize;
+        private final Consumer<List<ChangeEvent<K, V>>> handler;
+        private final Runnable onOverflow;
+        private final Consumer<ChangeEvent<K, V>> enqueue = this::enqueue;
+        private final Thread thread;
+        private final LongAdder dropped = new LongAdder();
+        private volatile boolean overflowed;
+        private volatile boolean running = true;
+
+        private AsyncSubscription(int capacity, int maxBatchSize,
+                                  Consumer<List<ChangeEvent<K, V>>> handler, Runnable onOverflow) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.maxBatchSize = maxBatchSize;
+            this.handler = handler;
+            this.onOverflow = onOverflow;
+            this.thread = new Thread(this::run, "Quill-ChangeFeed-" + THREAD_ID.incrementAndGet());
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * Makes the subscriber thread run {@code onOverflow} before handling further changes,
+         * for example to copy the initial state of the storage.
+         */
+        public void requestResync() {
+            overflowed = true;
+        }
+
+        /**
+         * Gets how many changes were discarded because the queue was full.
+         */
+        public long getDropped() {
+            return dropped.sum();
+        }
+
+        public int getQueued() {
+            return queue.size();
+        }
+
+        @Override
+        public void cancel() {
+            subscribers.remove(enqueue);
+            running = false;
+            thread.interrupt();
+        }
+
+        private void enqueue(ChangeEvent<K, V> event) {
+            if (!queue.offer(event)) {
+                dropped.increment();
+                overflowed = true;
+            }
+        }
+
+        private void run() {
+            List<ChangeEvent<K, V>> batch = new ArrayList<>(maxBatchSize);
+            while (running) {
+                try {
+                    if (overflowed) {
+                        overflowed = false;
+                        queue.clear();
+                        onOverflow.run();
+                        continue;
+                    }
+
+                    ChangeEvent<K, V> first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) continue;
+
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    handler.accept(batch);
+                } catch (InterruptedException e) {
+                    return;
+                } catch (Exception e) {
+                    // The failed batch is lost, so the subscriber resyncs before handling further changes
+                    LOGGER.log(Level.WARNING, "Change feed subscriber failed, resyncing", e);
+                    overflowed = true;
+                    sleepBeforeRetry();
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void sleepBeforeRetry() {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package me.levitate.quill.storage.feed;
+
+import lombok.Getter;
+import me.levitate.quill.cache.Cache;
+import me.levitate.quill.cache.redis.RedisCache;
+import me.levitate.quill.storage.JSONStorage;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mirrors a storage into a cache, such as a {@link RedisCache} shared with other servers, by consuming its change feed.
+ * <p>
+ * Changes are coalesced per key and written in batches on the feed's subscriber thread, pipelined into Redis.
+ * The whole storage is copied once when the replicator starts, and again whenever changes were lost
+ * because the queue overflowed, a batch failed or the storage was reloaded. Keys removed while
+ * the replicator wasn't running are not removed from the cache by this copy.
+ * </p>
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class RedisReplicator<K, V> {
+    private final JSONStorage<K, V> source;
+    private final Cache<K, V> target;
+    private final int queueCapacity;
+    private final int batchSize;
+
+    private final AtomicLong replicated = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+    /**
+     * The sequence number of the last change written to the cache.
+     */
+    @Getter
+    private volatile long lastSequence;
+    private ChangeFeed<K, V>.AsyncSubscription subscription;
+
+    private RedisReplicator(Builder<K, V> builder) {
+        this.source = builder.source;
+        this.target = builder.target;
+        this.queueCapacity = builder.queueCapacity;
+        this.batchSize = builder.batchSize;
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Starts replicating, beginning with a copy of the whole storage.
+     */
+    public synchronized void start() {
+        if (subscription != null) return;
+
+        subscription = source.getChangeFeed().subscribeAsync(queueCapacity, batchSize, this::apply, this::resync);
+        subscription.requestResync();
+    }
+
+    /**
+     * Stops replicating. Queued changes are not written.
+     */
+    public synchronized void stop() {
+        if (subscription == null) return;
+
+        subscription.cancel();
+        subscription = null;
+    }
+
+    /**
+     * Gets how many changes were written to the cache.
+     */
+    public long getReplicated() {
+        return replicated.get();
+    }
+
+    /**
+     * Gets how many times the whole storage was copied.
+     */
+    public long getResyncs() {
+        return resyncs.get();
+    }
+
+    public synchronized boolean isRunning() {
+        return subscription != null;
+    }
+
+    private void apply(List<ChangeEvent<K, V>> batch) {
+        boolean clear = false;
+        Map<K, ChangeEvent<K, V>> latest = new LinkedHashMap<>();
+        for (ChangeEvent<K, V> event : batch) {
+            switch (event.type()) {
+                case RELOAD -> {
+                    if (clear) write(true, Collections.emptyMap(), Collections.emptyList());
+                    resync();
+                    latest.clear();
+                    clear = false;
+                }
+                case CLEAR -> {
+                    // Changes before the clear are superseded by it
+                    clear = true;
+                    latest.clear();
+                }
+                default -> latest.put(event.key(), event);
+            }
+        }
+
+        Map<K, V> puts = new HashMap<>();
+        List<K> removes = new ArrayList<>();
+        latest.forEach((key, event) -> {
+            if (event.type() == ChangeEvent.Type.REMOVE) {
+                removes.add(key);
+            } else {
+                puts.put(key, event.value());
+            }
+        });
+
+        write(clear, puts, removes);
+        replicated.addAndGet(batch.size());
+        lastSequence = batch.get(batch.size() - 1).sequence();
+    }
+
+    private void resync() {
+        write(false, source.copyAll(), Collections.emptyList());
+        resyncs.incrementAndGet();
+    }
+
+    private void write(boolean clear, Map<K, V> puts, Collection<K> removes) {
+        if (!clear && puts.isEmpty() && removes.isEmpty()) return;
+
+        if (target instanceof RedisCache<K, V> redis) {
+            redis.writeBatch(clear, puts, removes);
+            return;
+        }
+
+        if (clear) target.clear();
+        if (!puts.isEmpty()) target.putAll(puts);
+        if (!removes.isEmpty()) target.removeAll(removes);
+    }
+
+    public static class Builder<K, V> {
+        private JSONStorage<K, V> source;
+        private Cache<K, V> target;
+        private int queueCapacity = 10000;
+        private int batchSize = 500;
+
+        /**
+         * Sets the replicated storage, which must be built in concurrent mode.
+         */
+        public Builder<K, V> source(JSONStorage<K, V> source) {
+            this.source = source;
+            return this;
+        }
+
+        public Builder<K, V> target(Cache<K, V> target) {
+            this.target = target;
+            return this;
+        }
+
+        /**
+         * Sets how many changes may wait to be replicated before the replicator falls back to a full copy.
+         */
+        public Builder<K, V> queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Sets the maximum amount of changes written to the cache at once.
+         */
+        public Builder<K, V> batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public RedisReplicator<K, V> build() {
+            validate();
+            return new RedisReplicator<>(this);
+        }
+
+        private void validate() {
+            if (source == null) throw new IllegalStateException("Source is required");
+            // The storage is copied from the subscriber thread
+            if (!source.isConcurrent()) throw new IllegalStateException("Source must be a concurrent storage");
+            if (target == null) throw new IllegalStateException("Target is required");
+            if (queueCapacity <= 0) throw new IllegalStateException("Queue capacity must be positive");
+            if (batchSize <= 0) throw new IllegalStateException("Batch size must be positive");
+        }
+    }
+}
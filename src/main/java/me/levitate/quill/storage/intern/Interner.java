@@ -0,0 +1,78 @@
+package me.levitate.quill.storage.intern;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of canonical instances for an immutable type, so equal values decoded many times share one instance.
+ * <p>
+ * The pool is a fixed-size table where each value has a single slot, a value whose slot is taken by a different value
+ * replaces it. Frequent values therefore stay pooled while the memory used is capped, and lookups never block.
+ * Pooled values must be immutable, with {@code equals} and {@code hashCode} implemented.
+ * </p>
+ *
+ * @param <T> The pooled type
+ */
+public final class Interner<T> {
+    private final AtomicReferenceArray<T> table;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity The maximum amount of pooled values, rounded up to a power of two
+     */
+    public Interner(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive");
+
+        int size = Integer.highestOneBit(Math.min(capacity, 1 << 30) - 1) << 1;
+        this.table = new AtomicReferenceArray<>(Math.max(size, 1));
+        this.mask = table.length() - 1;
+    }
+
+    /**
+     * Gets the pooled instance equal to the value, pooling the value if there is none.
+     *
+     * @return The pooled instance, or the value itself
+     */
+    public T intern(T value) {
+        if (value == null) return null;
+
+        int hash = value.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+
+        T pooled = table.get(slot);
+        if (pooled != null && pooled.equals(value)) {
+            hits.increment();
+            return pooled;
+        }
+
+        misses.increment();
+        table.set(slot, value);
+        return value;
+    }
+
+    public int getCapacity() {
+        return table.length();
+    }
+
+    /**
+     * Gets how many interned values were replaced by a pooled instance.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Empties the pool, values handed out before stay shared.
+     */
+    public void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, null);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package me.levitate.quill.storage.intern;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import com.squareup.moshi.Moshi;
+import me.levitate.quill.utils.common.SimpleLocation;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonicalizes decoded values through an {@link Interner} per type, so repeated strings such as world names,
+ * ranks and item types are kept in memory once instead of once per record.
+ * <p>
+ * Strings, {@link UUID}s and {@link SimpleLocation}s are interned by default, other immutable types
+ * can be added with {@link #intern(Class, int)}. Only decoding is affected, values are written unchanged.
+ * A factory can be shared between storages so they share their pools.
+ * </p>
+ */
+public class InterningAdapterFactory implements JsonAdapter.Factory {
+    private final Map<Type, Interner<?>> interners = new ConcurrentHashMap<>();
+
+    /**
+     * Interns the default types with the given pool size each.
+     *
+     * @param poolSize The maximum amount of pooled values per type
+     */
+    public InterningAdapterFactory(int poolSize) {
+        intern(String.class, poolSize);
+        intern(UUID.class, poolSize);
+        intern(SimpleLocation.class, poolSize);
+    }
+
+    /**
+     * Interns another immutable type, replacing its pool if it already had one.
+     * Must be called before the factory is used by a storage.
+     */
+    public <T> InterningAdapterFactory intern(Class<T> type, int poolSize) {
+        interners.put(type, new Interner<T>(poolSize));
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Interner<T> getInterner(Class<T> type) {
+        return (Interner<T>) interners.get(type);
+    }
+
+    @Override
+    public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations, Moshi moshi) {
+        Interner<?> interner = interners.get(type);
+        if (interner == null || !annotations.isEmpty()) return null;
+
+        return new InterningAdapter<>(moshi.nextAdapter(this, type, annotations), interner);
+    }
+
+    private static class InterningAdapter<T> extends JsonAdapter<T> {
+        private final JsonAdapter<T> delegate;
+        private final Interner<T> interner;
+
+        @SuppressWarnings("unchecked")
+        private InterningAdapter(JsonAdapter<?> delegate, Interner<?> interner) {
+            this.delegate = (JsonAdapter<T>) delegate;
+            this.interner = (Interner<T>) interner;
+        }
+
+        @Override
+        public T fromJson(JsonReader reader) throws IOException {
+            return interner.intern(delegate.fromJson(reader));
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, T value) throws IOException {
+            delegate.toJson(writer, value);
+        }
+    }
+}
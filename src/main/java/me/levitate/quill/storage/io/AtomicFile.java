@@ -0,0 +1,187 @@
+package me.levitate.quill.storage.io;
+
+import okio.BufferedSink;
+import okio.Okio;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Crash-safe file writes for storage backends.
+ * Data is streamed into a temporary file, optionally synced to disk, and then renamed over the target,
+ * so the target always holds either the previous or the new generation, never a partial one.
+ * The previous generation is kept next to the target with a {@code .bak} suffix.
+ */
+public class AtomicFile {
+
+    /**
+     * Streams data into the target file atomically.
+     *
+     * @param target The file to replace
+     * @param fsync Whether to force the data to disk before the rename
+     * @param writer Writes the new contents into a buffered sink
+     * @throws IOException if writing or replacing the file fails, the target is left untouched
+     */
+    public static void write(File target, boolean fsync, SinkWriter writer) throws IOException {
+        File temp = writeTemp(target, ".tmp", fsync, writer);
+        replace(target, temp);
+
+        if (fsync) {
+            syncDirectory(target.getAbsoluteFile().getParentFile().toPath());
+        }
+    }
+
+    private static File writeTemp(File target, String suffix, boolean fsync, SinkWriter writer) throws IOException {
+        File temp = new File(target.getParentFile(), target.getName() + suffix);
+
+        try (FileOutputStream output = new FileOutputStream(temp)) {
+            BufferedSink sink = Okio.buffer(Okio.sink(output));
+            writer.write(sink);
+            sink.flush();
+            if (fsync) {
+                output.getFD().sync();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp.toPath());
+            throw e;
+        }
+        return temp;
+    }
+
+    private static void replace(File target, File temp) throws IOException {
+        if (target.exists()) {
+            keepBackup(target.toPath(), backupOf(target).toPath());
+        }
+
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Gets the file holding the previous generation of a target.
+     */
+    public static File backupOf(File target) {
+        return new File(target.getParentFile(), target.getName() + ".bak");
+    }
+
+    /**
+     * Gets the file to read from, falling back to the backup when the target is missing.
+     *
+     * @return The readable file, or null if neither exists
+     */
+    public static File readable(File target) {
+        if (target.exists()) return target;
+        File backup = backupOf(target);
+        return backup.exists() ? backup : null;
+    }
+
+    private static void keepBackup(Path target, Path backup) throws IOException {
+        Files.deleteIfExists(backup);
+        try {
+            // A hard link keeps the old generation without copying it
+            Files.createLink(backup, target);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(target, backup, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // Not every platform allows opening directories, the rename is still atomic there
+        }
+    }
+
+    /**
+     * Replaces several files as one group commit. Every file is staged into its temporary file first,
+     * then all of them are synced in one pass, renamed one by one, and each directory is synced once.
+     * Each file is still replaced atomically, but not the group as a whole.
+     * Staged files use their own temporary files, so a target may be written with {@link #write} while it is staged.
+     */
+    public static class Batch {
+        private final Map<File, File> staged = new LinkedHashMap<>();
+        private final Set<Path> directories = new LinkedHashSet<>();
+
+        /**
+         * Writes the new contents of a target into its temporary file, without syncing it yet.
+         */
+        public void stage(File target, SinkWriter writer) throws IOException {
+            staged.put(target, writeTemp(target, ".batch.tmp", false, writer));
+        }
+
+        /**
+         * Forces every staged file to disk, before any of them replaces its target.
+         */
+        public void sync() throws IOException {
+            for (File temp : staged.values()) {
+                try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+        }
+
+        /**
+         * Replaces a staged target with its new contents.
+         */
+        public void replace(File target) throws IOException {
+            File temp = staged.remove(target);
+            if (temp == null) return;
+
+            AtomicFile.replace(target, temp);
+            directories.add(target.getAbsoluteFile().getParentFile().toPath());
+        }
+
+        /**
+         * Drops the staged contents of a target, leaving the target untouched.
+         */
+        public void discard(File target) {
+            File temp = staged.remove(target);
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+
+        /**
+         * Syncs the directories of the replaced targets once each, making the renames durable.
+         */
+        public void syncDirectories() {
+            directories.forEach(AtomicFile::syncDirectory);
+            directories.clear();
+        }
+
+        /**
+         * Deletes the temporary files of targets that were not replaced.
+         */
+        public void abort() {
+            staged.values().forEach(Batch::deleteQuietly);
+            staged.clear();
+        }
+
+        private static void deleteQuietly(File temp) {
+            try {
+                Files.deleteIfExists(temp.toPath());
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface SinkWriter {
+        void write(BufferedSink sink) throws IOException;
+    }
+}
@@ -0,0 +1,78 @@
+package me.levitate.quill.storage.io;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import okio.Okio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Streams JSON object files of key/value entries, the format shared by the JSON storage backends.
+ */
+public class JsonMapIO {
+
+    /**
+     * Reads a JSON object file entry by entry into the target map.
+     * Values of keys rejected by the filter are skipped without being decoded, and null values are dropped.
+     *
+     * @param source The file to read
+     * @param keyAdapter Adapter used to decode the object's names
+     * @param valueAdapter Adapter used to decode the values
+     * @param filter Which keys to keep, or null to keep every entry
+     * @param target The map the entries are put into
+     */
+    public static <K, V> void read(File source, JsonAdapter<K> keyAdapter, JsonAdapter<V> valueAdapter,
+                                   Predicate<K> filter, Map<K, V> target) throws IOException {
+        stream(source, keyAdapter, valueAdapter, filter, target::put);
+    }
+
+    /**
+     * Reads a JSON object file entry by entry, handing each entry to the action without keeping it.
+     *
+     * @see #read
+     */
+    public static <K, V> void stream(File source, JsonAdapter<K> keyAdapter, JsonAdapter<V> valueAdapter,
+                                     Predicate<K> filter, BiConsumer<K, V> action) throws IOException {
+        try (JsonReader reader = JsonReader.of(Okio.buffer(Okio.source(Files.newInputStream(source.toPath()))))) {
+            if (reader.peek() == JsonReader.Token.NULL) return;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                reader.promoteNameToValue();
+                K key = keyAdapter.fromJson(reader);
+                if (key == null) {
+                    throw new JsonDataException("Null key at " + reader.getPath());
+                }
+
+                if (filter != null && !filter.test(key)) {
+                    reader.skipValue();
+                    continue;
+                }
+
+                V value = valueAdapter.fromJson(reader);
+                if (value != null) {
+                    action.accept(key, value);
+                }
+            }
+            reader.endObject();
+        }
+    }
+
+    /**
+     * Writes a map as a JSON object file, atomically.
+     *
+     * @param target The file to replace
+     * @param fsync Whether to force the data to disk before replacing the file
+     * @param mapAdapter Adapter for the whole map
+     * @param data The entries to write
+     */
+    public static <K, V> void write(File target, boolean fsync, JsonAdapter<Map<K, V>> mapAdapter, Map<K, V> data) throws IOException {
+        AtomicFile.write(target, fsync, sink -> mapAdapter.toJson(sink, data));
+    }
+}
@@ -0,0 +1,89 @@
+package me.levitate.quill.storage.sql;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small fixed-size pool of connections to an embedded SQLite database.
+ * Connections are opened up front in WAL mode, so readers don't block the writer.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final long BORROW_TIMEOUT_SECONDS = 30;
+
+    private final BlockingQueue<Connection> idle;
+    private final List<Connection> all;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, int size) throws SQLException {
+        this.idle = new ArrayBlockingQueue<>(size);
+        this.all = new ArrayList<>(size);
+
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection connection = DriverManager.getConnection(url);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("PRAGMA journal_mode=WAL");
+                    statement.execute("PRAGMA synchronous=NORMAL");
+                    statement.execute("PRAGMA busy_timeout=5000");
+                }
+                all.add(connection);
+                idle.add(connection);
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the work with a connection from the pool, waiting for one to become available.
+     */
+    public <T> T withConnection(SQLFunction<Connection, T> work) throws SQLException {
+        Connection connection = borrow();
+        try {
+            return work.apply(connection);
+        } finally {
+            idle.add(connection);
+        }
+    }
+
+    private Connection borrow() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+
+        try {
+            Connection connection = idle.poll(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (connection == null) {
+                throw new SQLException("Timed out waiting for a database connection");
+            }
+            return connection;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Connection connection : all) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+        all.clear();
+        idle.clear();
+    }
+
+    @FunctionalInterface
+    public interface SQLFunction<T, R> {
+        R apply(T value) throws SQLException;
+    }
+}
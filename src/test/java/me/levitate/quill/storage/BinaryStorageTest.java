@@ -0,0 +1,143 @@
+package me.levitate.quill.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryStorageTest {
+    private static final int ENTRIES = 10_000;
+
+    @TempDir
+    File folder;
+
+    @Test
+    void roundTripsThroughTheFile() {
+        Map<UUID, Profile> profiles = profiles(500);
+        BinaryStorage<UUID, Profile> storage = binary("profiles.bin");
+        profiles.forEach(storage::put);
+        storage.save();
+        assertFalse(storage.isDirty());
+
+        BinaryStorage<UUID, Profile> loaded = binary("profiles.bin");
+        loaded.load();
+        assertEquals(profiles, loaded.getAll());
+        assertFalse(loaded.isDirty());
+    }
+
+    @Test
+    void skipsFilteredKeysOnLoad() {
+        Map<UUID, Profile> profiles = profiles(100);
+        BinaryStorage<UUID, Profile> storage = binary("profiles.bin");
+        profiles.forEach(storage::put);
+        storage.save();
+
+        UUID kept = profiles.keySet().iterator().next();
+        BinaryStorage<UUID, Profile> loaded = binary("profiles.bin");
+        loaded.load(kept::equals);
+        assertEquals(Map.of(kept, profiles.get(kept)), loaded.getAll());
+    }
+
+    @Test
+    void isSmallerThanJson() {
+        Map<UUID, Profile> profiles = profiles(ENTRIES);
+
+        JSONStorage<UUID, Profile> json = JSONStorage.<UUID, Profile>builder()
+                .dataFolder(folder)
+                .fileName("profiles.json")
+                .keyClass(UUID.class)
+                .valueClass(Profile.class)
+                .fsync(false)
+                .build();
+        BinaryStorage<UUID, Profile> binary = binary("profiles.bin");
+        profiles.forEach(json::put);
+        profiles.forEach(binary::put);
+
+        long jsonSave = time(json::save);
+        long binarySave = time(binary::save);
+
+        JSONStorage<UUID, Profile> jsonLoaded = JSONStorage.<UUID, Profile>builder()
+                .dataFolder(folder)
+                .fileName("profiles.json")
+                .keyClass(UUID.class)
+                .valueClass(Profile.class)
+                .build();
+        BinaryStorage<UUID, Profile> binaryLoaded = binary("profiles.bin");
+        long jsonLoad = time(jsonLoaded::load);
+        long binaryLoad = time(binaryLoaded::load);
+        assertEquals(profiles, jsonLoaded.getAll());
+        assertEquals(profiles, binaryLoaded.getAll());
+
+        long jsonSize = new File(folder, "profiles.json").length();
+        long binarySize = new File(folder, "profiles.bin").length();
+        System.out.printf("%d profiles: JSON %d bytes (save %d ms, load %d ms), binary %d bytes (save %d ms, load %d ms), %.1f%% of JSON%n",
+                ENTRIES, jsonSize, jsonSave, jsonLoad, binarySize, binarySave, binaryLoad, 100.0 * binarySize / jsonSize);
+
+        // Timings are only reported, they are too noisy to assert on in a unit test
+        assertTrue(binarySize * 2 < jsonSize, "Binary file is " + binarySize + " bytes, JSON is " + jsonSize);
+    }
+
+    private BinaryStorage<UUID, Profile> binary(String fileName) {
+        return BinaryStorage.<UUID, Profile>builder()
+                .dataFolder(folder)
+                .fileName(fileName)
+                .keyClass(UUID.class)
+                .valueClass(Profile.class)
+                .fsync(false)
+                .build();
+    }
+
+    private static long time(Runnable action) {
+        long start = System.nanoTime();
+        action.run();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static Map<UUID, Profile> profiles(int count) {
+        Random random = new Random(42);
+        String[] worlds = {"world", "world_nether", "world_the_end"};
+        String[] ranks = {"default", "vip", "mvp", "moderator"};
+
+        Map<UUID, Profile> profiles = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            Profile profile = new Profile();
+            profile.name = "Player" + i;
+            profile.rank = ranks[random.nextInt(ranks.length)];
+            profile.world = worlds[random.nextInt(worlds.length)];
+            profile.level = random.nextInt(100);
+            profile.balance = Math.round(random.nextDouble() * 1_000_000) / 100.0;
+            profile.lastSeen = 1_700_000_000_000L + random.nextInt(1_000_000_000);
+            profile.homes = new ArrayList<>(List.of("home", "base"));
+            profile.stats = new HashMap<>(Map.of("kills", random.nextInt(1000), "deaths", random.nextInt(1000)));
+            profiles.put(new UUID(random.nextLong(), random.nextLong()), profile);
+        }
+        return profiles;
+    }
+
+    static class Profile {
+        String name;
+        String rank;
+        String world;
+        int level;
+        double balance;
+        long lastSeen;
+        List<String> homes;
+        Map<String, Integer> stats;
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Profile other)) return false;
+            return Objects.equals(name, other.name) && Objects.equals(rank, other.rank) && Objects.equals(world, other.world)
+                    && level == other.level && balance == other.balance && lastSeen == other.lastSeen
+                    && Objects.equals(homes, other.homes) && Objects.equals(stats, other.stats);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, level);
+        }
+    }
+}
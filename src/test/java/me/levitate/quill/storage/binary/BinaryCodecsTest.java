@@ -0,0 +1,170 @@
+package me.levitate.quill.storage.binary;
+
+import com.squareup.moshi.Moshi;
+import me.levitate.quill.storage.binary.codecs.common.JsonTreeCodec;
+import me.levitate.quill.storage.binary.codecs.common.UUIDCodec;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCodecsTest {
+
+    @Test
+    void roundTripsStrings() throws IOException {
+        for (String value : new String[]{"", "hello", "h\u00e9llo w\u00f6rld \u2713 \uD834\uDD1E", "x".repeat(10_000), null}) {
+            assertEquals(value, roundTrip(BinaryCodecs.STRING, value));
+        }
+    }
+
+    @Test
+    void roundTripsIntegers() throws IOException {
+        for (int value : new int[]{0, 1, -1, 63, -64, 64, 127, 128, 300, -300, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+            assertEquals(value, roundTrip(BinaryCodecs.INTEGER, value));
+        }
+    }
+
+    @Test
+    void roundTripsLongs() throws IOException {
+        for (long value : new long[]{0, 1, -1, 1L << 35, -(1L << 35), Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertEquals(value, roundTrip(BinaryCodecs.LONG, value));
+        }
+    }
+
+    @Test
+    void roundTripsFloatingPointBits() throws IOException {
+        for (double value : new double[]{0.0, -0.0, 1.5, -2.25, Double.MIN_VALUE, Double.MAX_VALUE,
+                Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}) {
+            assertEquals(Double.doubleToRawLongBits(value), Double.doubleToRawLongBits(roundTrip(BinaryCodecs.DOUBLE, value)));
+        }
+        for (float value : new float[]{0f, -0f, 1.5f, Float.MIN_VALUE, Float.MAX_VALUE, Float.NaN, Float.NEGATIVE_INFINITY}) {
+            assertEquals(Float.floatToRawIntBits(value), Float.floatToRawIntBits(roundTrip(BinaryCodecs.FLOAT, value)));
+        }
+    }
+
+    @Test
+    void roundTripsBooleansAndUuids() throws IOException {
+        assertTrue(roundTrip(BinaryCodecs.BOOLEAN, true));
+        assertFalse(roundTrip(BinaryCodecs.BOOLEAN, false));
+
+        UUIDCodec codec = new UUIDCodec();
+        for (UUID value : new UUID[]{UUID.randomUUID(), new UUID(0, 0), new UUID(-1, -1)}) {
+            assertEquals(value, roundTrip(codec, value));
+        }
+    }
+
+    @Test
+    void encodesSmallNumbersCompactly() {
+        assertEquals(1, encodedSize(writer -> writer.writeVarInt(127)));
+        assertEquals(2, encodedSize(writer -> writer.writeVarInt(128)));
+        assertEquals(5, encodedSize(writer -> writer.writeVarInt(-1)));
+        assertEquals(1, encodedSize(writer -> writer.writeSignedVarLong(-64)));
+        assertEquals(10, encodedSize(writer -> writer.writeSignedVarLong(Long.MIN_VALUE)));
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        byte[] endless = new byte[11];
+        Arrays.fill(endless, (byte) 0xFF);
+        assertThrows(IOException.class, () -> reader(endless, List.of()).readVarLong());
+
+        // A varint longer than 32 bits can't be read as an int
+        byte[] large = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10};
+        assertThrows(IOException.class, () -> reader(large, List.of()).readVarInt());
+
+        assertThrows(EOFException.class, () -> reader(new byte[3], List.of()).readFixedLong());
+        assertThrows(EOFException.class, () -> reader(new byte[]{10, 1, 2}, List.of()).readBytes());
+        assertThrows(IOException.class, () -> reader(new byte[]{2}, List.of("only")).readString());
+    }
+
+    @Test
+    void roundTripsJsonTrees() throws IOException {
+        JsonTreeCodec<Profile> codec = new JsonTreeCodec<>(new Moshi.Builder().build().adapter(Profile.class));
+
+        Profile profile = new Profile();
+        profile.name = "Steve";
+        profile.level = -42;
+        profile.balance = 1234.5;
+        profile.whole = 3.0;
+        profile.negativeZero = -0.0;
+        profile.active = true;
+        profile.tags = List.of("vip", "builder", "vip");
+        profile.stats = new LinkedHashMap<>(Map.of("kills", 10L, "deaths", 2L));
+        profile.nickname = null;
+
+        Profile read = roundTrip(codec, profile);
+        assertEquals(profile, read);
+        assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(read.negativeZero));
+    }
+
+    @Test
+    void sharesRepeatedStringsThroughTheDictionary() throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        BinaryWriter writer = new BinaryWriter(dictionary);
+        writer.writeString("world");
+        writer.writeString("world");
+        writer.writeString("nether");
+        writer.writeString("world");
+
+        assertEquals(List.of("world", "nether"), writer.getNewStrings());
+        // Each reference is a single byte
+        assertEquals(4, writer.size());
+
+        BinaryReader reader = reader(Arrays.copyOf(writer.getBuffer(), writer.size()), new ArrayList<>(writer.getNewStrings()));
+        String first = reader.readString();
+        assertSame(first, reader.readString());
+        assertEquals("nether", reader.readString());
+        assertSame(first, reader.readString());
+    }
+
+    private static <T> T roundTrip(BinaryCodec<T> codec, T value) throws IOException {
+        BinaryWriter writer = new BinaryWriter(new HashMap<>());
+        codec.write(writer, value);
+
+        BinaryReader reader = reader(Arrays.copyOf(writer.getBuffer(), writer.size()), new ArrayList<>(writer.getNewStrings()));
+        T read = codec.read(reader);
+        // The codec must consume exactly what it wrote
+        assertThrows(EOFException.class, reader::readByte);
+        return read;
+    }
+
+    private static BinaryReader reader(byte[] bytes, List<String> dictionary) {
+        BinaryReader reader = new BinaryReader(dictionary);
+        reader.reset(bytes, 0, bytes.length);
+        return reader;
+    }
+
+    private static int encodedSize(java.util.function.Consumer<BinaryWriter> write) {
+        BinaryWriter writer = new BinaryWriter(new HashMap<>());
+        write.accept(writer);
+        return writer.size();
+    }
+
+    static class Profile {
+        String name;
+        int level;
+        double balance;
+        double whole;
+        double negativeZero;
+        boolean active;
+        List<String> tags;
+        Map<String, Long> stats;
+        String nickname;
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Profile other)) return false;
+            return Objects.equals(name, other.name) && level == other.level && balance == other.balance
+                    && whole == other.whole && active == other.active && Objects.equals(tags, other.tags)
+                    && Objects.equals(stats, other.stats) && Objects.equals(nickname, other.nickname);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, level);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package me.levitate.quill.storage.binary;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryFileTest {
+
+    @Test
+    void roundTripsRecordsInOrder() throws IOException {
+        Map<String, Long> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.put("player-" + i, (long) i * i - 500);
+        }
+
+        assertEquals(entries, read(write(entries)));
+    }
+
+    @Test
+    void sharesDictionaryStringsAcrossRecords() throws IOException {
+        byte[] bytes;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinaryFileWriter writer = new BinaryFileWriter(output);
+        String world = "a_rather_long_world_name_" + "x".repeat(100);
+        for (int i = 0; i < 100; i++) {
+            writer.write(i, BinaryCodecs.INTEGER, world, BinaryCodecs.STRING);
+        }
+        bytes = output.toByteArray();
+
+        // The name is stored once, every other record is a few bytes
+        assertTrue(bytes.length < world.length() + 100 * 6, "File is " + bytes.length + " bytes");
+
+        BinaryFileReader reader = new BinaryFileReader(new ByteArrayInputStream(bytes));
+        String first = null;
+        int records = 0;
+        while (reader.next()) {
+            assertEquals(records++, BinaryCodecs.INTEGER.read(reader.record()));
+            String value = BinaryCodecs.STRING.read(reader.record());
+            assertEquals(world, value);
+            if (first == null) first = value;
+            assertSame(first, value);
+        }
+        assertEquals(100, records);
+    }
+
+    @Test
+    void skipsUnreadValuesWithoutLosingDictionaryStrings() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("a", "shared");
+        entries.put("b", "shared");
+        entries.put("c", "other");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinaryFileWriter writer = new BinaryFileWriter(output);
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            writer.write(entry.getKey(), BinaryCodecs.STRING, entry.getValue(), BinaryCodecs.STRING);
+        }
+
+        // Only read the last value, the strings of skipped records must still be registered
+        BinaryFileReader reader = new BinaryFileReader(new ByteArrayInputStream(output.toByteArray()));
+        Map<String, String> read = new LinkedHashMap<>();
+        while (reader.next()) {
+            String key = BinaryCodecs.STRING.read(reader.record());
+            if (!key.equals("b")) continue;
+            read.put(key, BinaryCodecs.STRING.read(reader.record()));
+        }
+        assertEquals(Map.of("b", "shared"), read);
+    }
+
+    @Test
+    void rejectsTruncatedFiles() throws IOException {
+        Map<String, Long> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            entries.put("key-" + i, (long) i);
+        }
+        byte[] bytes = write(entries);
+
+        // A cut inside a record must fail, a cut between records leaves whole records only
+        List<Map.Entry<String, Long>> expected = new ArrayList<>(entries.entrySet());
+        int failures = 0;
+        for (int length = 5; length < bytes.length; length++) {
+            try {
+                List<Map.Entry<String, Long>> read = new ArrayList<>(read(Arrays.copyOf(bytes, length)).entrySet());
+                assertEquals(expected.subList(0, read.size()), read, "Truncated to " + length + " bytes");
+            } catch (EOFException e) {
+                failures++;
+            }
+        }
+        assertEquals(bytes.length - 5 - (entries.size() - 1) - 1, failures);
+        assertThrows(EOFException.class, () -> read(Arrays.copyOf(bytes, 2)));
+        assertThrows(EOFException.class, () -> read(Arrays.copyOf(bytes, bytes.length - 1)));
+    }
+
+    @Test
+    void rejectsForeignFiles() throws IOException {
+        byte[] bytes = write(Map.of("key", 1L));
+
+        byte[] badMagic = bytes.clone();
+        badMagic[0] = '{';
+        assertThrows(IOException.class, () -> read(badMagic));
+
+        byte[] badVersion = bytes.clone();
+        badVersion[4] = 99;
+        IOException exception = assertThrows(IOException.class, () -> read(badVersion));
+        assertTrue(exception.getMessage().contains("version"));
+    }
+
+    @Test
+    void rejectsUnknownStringReferences() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinaryFileWriter writer = new BinaryFileWriter(output);
+        writer.write(1, BinaryCodecs.INTEGER, 2, BinaryCodecs.INTEGER);
+
+        BinaryFileReader reader = new BinaryFileReader(new ByteArrayInputStream(output.toByteArray()));
+        assertTrue(reader.next());
+        // The integer key isn't a valid string reference, the dictionary is still empty
+        IOException exception = assertThrows(IOException.class, () -> BinaryCodecs.STRING.read(reader.record()));
+        assertTrue(exception.getMessage().startsWith("Unknown string reference"));
+    }
+
+    private static byte[] write(Map<String, Long> entries) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinaryFileWriter writer = new BinaryFileWriter(output);
+        for (Map.Entry<String, Long> entry : entries.entrySet()) {
+            writer.write(entry.getKey(), BinaryCodecs.STRING, entry.getValue(), BinaryCodecs.LONG);
+        }
+        return output.toByteArray();
+    }
+
+    private static Map<String, Long> read(byte[] bytes) throws IOException {
+        BinaryFileReader reader = new BinaryFileReader(new ByteArrayInputStream(bytes));
+        Map<String, Long> entries = new LinkedHashMap<>();
+        while (reader.next()) {
+            entries.put(BinaryCodecs.STRING.read(reader.record()), BinaryCodecs.LONG.read(reader.record()));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,140 @@
+package me.levitate.quill.storage.binary;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileTest {
+    private static final int INDEX_ENTRY_SIZE = 12;
+
+    @TempDir
+    File folder;
+
+    @Test
+    void looksUpEveryKey() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            entries.put("player-" + i, i % 3 == 0 ? "world" : "world_nether");
+        }
+        MappedFile mapped = open(write(entries));
+
+        assertEquals(entries.size(), mapped.size());
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            assertEquals(entry.getValue(), mapped.get(entry.getKey(), BinaryCodecs.STRING, BinaryCodecs.STRING));
+            assertTrue(mapped.containsKey(entry.getKey(), BinaryCodecs.STRING));
+        }
+        assertNull(mapped.get("player-5000", BinaryCodecs.STRING, BinaryCodecs.STRING));
+        assertFalse(mapped.containsKey("missing", BinaryCodecs.STRING));
+    }
+
+    @Test
+    void iteratesInWriteOrder() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("zeta", "last written first");
+        entries.put("alpha", "second");
+        entries.put("mid", null);
+        MappedFile mapped = open(write(entries));
+
+        Map<String, String> read = new LinkedHashMap<>();
+        mapped.forEach(BinaryCodecs.STRING, BinaryCodecs.STRING, read::put);
+        assertEquals(new ArrayList<>(entries.entrySet()), new ArrayList<>(read.entrySet()));
+    }
+
+    @Test
+    void readsEmptyFiles() throws IOException {
+        MappedFile mapped = open(write(Map.of()));
+
+        assertEquals(0, mapped.size());
+        assertNull(mapped.get("any", BinaryCodecs.STRING, BinaryCodecs.STRING));
+        mapped.forEach(BinaryCodecs.STRING, BinaryCodecs.STRING, (key, value) -> fail("File should be empty"));
+    }
+
+    @Test
+    void comparesKeysWhenHashesCollide() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("impostor", "value of impostor");
+        entries.put("target", "value of target");
+        entries.put("other", "value of other");
+        byte[] bytes = write(entries);
+
+        // Give the first record the hash of "target", so both share an index run with the impostor's record first
+        long collision = MappedFile.hash(MappedFile.encodeKey("target", BinaryCodecs.STRING));
+        long impostor = MappedFile.hash(MappedFile.encodeKey("impostor", BinaryCodecs.STRING));
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int count = buffer.getInt(bytes.length - 20);
+        int indexOffset = buffer.getInt(bytes.length - 12);
+
+        List<long[]> index = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long hash = buffer.getLong(indexOffset + i * INDEX_ENTRY_SIZE);
+            int offset = buffer.getInt(indexOffset + i * INDEX_ENTRY_SIZE + 8);
+            index.add(new long[]{hash == impostor ? collision : hash, offset});
+        }
+        index.sort(Comparator.<long[]>comparingLong(entry -> entry[0]).thenComparingLong(entry -> entry[1]));
+        for (int i = 0; i < count; i++) {
+            buffer.putLong(indexOffset + i * INDEX_ENTRY_SIZE, index.get(i)[0]);
+            buffer.putInt(indexOffset + i * INDEX_ENTRY_SIZE + 8, (int) index.get(i)[1]);
+        }
+
+        MappedFile mapped = open(bytes);
+        assertEquals("value of target", mapped.get("target", BinaryCodecs.STRING, BinaryCodecs.STRING));
+        assertEquals("value of other", mapped.get("other", BinaryCodecs.STRING, BinaryCodecs.STRING));
+        assertTrue(mapped.containsKey("target", BinaryCodecs.STRING));
+        // The impostor is no longer indexed under its own hash
+        assertNull(mapped.get("impostor", BinaryCodecs.STRING, BinaryCodecs.STRING));
+    }
+
+    @Test
+    void rejectsTruncatedFiles() throws IOException {
+        byte[] bytes = write(Map.of("key", "value", "other", "value"));
+
+        for (int length : new int[]{0, 4, 8, bytes.length / 2, bytes.length - 1}) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(IOException.class, () -> open(truncated), "Truncated to " + length + " bytes");
+        }
+    }
+
+    @Test
+    void rejectsCorruptTrailers() throws IOException {
+        byte[] bytes = write(Map.of("key", "value"));
+
+        // An index running past the trailer
+        byte[] count = bytes.clone();
+        ByteBuffer.wrap(count).putInt(bytes.length - 20, 1000);
+        assertThrows(IOException.class, () -> open(count));
+
+        // An index starting before the records end
+        byte[] index = bytes.clone();
+        ByteBuffer.wrap(index).putInt(bytes.length - 12, 0);
+        assertThrows(IOException.class, () -> open(index));
+
+        byte[] version = bytes.clone();
+        ByteBuffer.wrap(version).putInt(bytes.length - 8, 2);
+        IOException exception = assertThrows(IOException.class, () -> open(version));
+        assertTrue(exception.getMessage().contains("version"));
+    }
+
+    private static byte[] write(Map<String, String> entries) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MappedFileWriter writer = new MappedFileWriter(output);
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            writer.write(entry.getKey(), BinaryCodecs.STRING, entry.getValue(), BinaryCodecs.STRING);
+        }
+        writer.finish();
+        return output.toByteArray();
+    }
+
+    private MappedFile open(byte[] bytes) throws IOException {
+        File file = File.createTempFile("mapped", ".qmap", folder);
+        Files.write(file.toPath(), bytes);
+        return MappedFile.open(file);
+    }
+}